@@ -8,16 +8,70 @@ import com.google.common.base.Stopwatch;
 import com.google.common.collect.Ordering;
 import wordle.guesser.utilities.*;
 
+import javax.annotation.Nullable;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.function.Supplier;
 
 public class App {
+
+    static final String RESULT_SIGNATURE = resultSignature(ScoringObjective.EXPECTED_SIZE);
+    // Enough to cover the likeliest feedback in the couple of seconds it takes to type it in
+    private static final int SPECULATED_BUCKETS = 16;
+
     public static void main(String[] args) throws IOException {
-        KnownState knownState = new KnownState();
-        Dictionary dict = Dictionary.wordle12k();
-        Guesser guessScorer = new BruteGuesser(5, dict);
+        SolverMetrics.registerMBean();
+        // --dump-metrics: time calls, and print counts, latencies and cache figures on the way out
+        boolean dumpMetrics = Arrays.asList(args).contains("--dump-metrics");
+        if (dumpMetrics) {
+            SolverMetrics.setEnabled(true);
+        }
+        // --length N: play a variant with N letter words from the system word list
+        int length = Words.LENGTH;
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals("--length")) {
+                length = Integer.parseInt(args[i + 1]);
+            }
+        }
+        boolean fiveLetters = length == Words.LENGTH;
+        Dictionary dict = fiveLetters ? Dictionary.wordle12k() : Dictionary.linuxDictionary(length);
+        // --hard: only guesses that use every hint so far
+        boolean hardMode = Arrays.asList(args).contains("--hard");
+        // --budget-ms N: answer within about N milliseconds a turn, with the best guess found by then
+        Duration budget = null;
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals("--budget-ms")) {
+                budget = Duration.ofMillis(Long.parseLong(args[i + 1]));
+            }
+        }
+        Duration turnBudget = budget;
+        // Speculative guessers come from here too, so they answer within the same budget
+        Supplier<BruteGuesser> bruteGuessers = () -> {
+            BruteGuesser guesser = hardMode
+                    ? new BruteGuesser(5, dict, ScoringEngine.shared(), ScoringObjective.EXPECTED_SIZE,
+                            GuessPool.hardMode(dict))
+                    : new BruteGuesser(5, dict);
+            guesser.setTimeBudget(turnBudget);
+            return guesser;
+        };
+        BruteGuesser bruteGuesser = bruteGuessers.get();
+        if (budget != null) {
+            bruteGuesser.setProgressListener((scored, total, bestSoFar) ->
+                    System.out.println("  scored " + scored + " of " + total + " guesses, best so far " + bestSoFar));
+        }
+        // Stored results and the strategy tree are keyed by the five letter pattern matrix
+        ResultStore store = fiveLetters
+                ? ResultStore.open(dict, hardMode ? RESULT_SIGNATURE + "-hard" : RESULT_SIGNATURE)
+                : null;
+        // The tree was built without the hard mode rules
+        StrategyTree strategyTree = fiveLetters && !hardMode && Files.exists(StrategyTree.defaultLocation(dict))
+                ? StrategyTree.open(StrategyTree.defaultLocation(dict), dict)
+                : null;
+        SolverSession session = new SolverSession(dict, layered(bruteGuesser, store, strategyTree));
 
         System.out.println("Welcome to wordleguesser!");
         System.out.println("The app will present you with a guess.");
@@ -32,67 +86,77 @@ public class App {
             String firstEnter = reader.readLine().trim();
             if (firstEnter.contains("DEBUG ")) {
                 Stopwatch timer = Stopwatch.createStarted();
-                secretDebugMode(knownState, guessScorer, dict, firstEnter);
+                secretDebugMode(session, firstEnter);
                 System.out.println("Elapsed: " + timer.elapsed());
-            } else if (firstEnter.contains("HELP ME")) {
-                helpMe(knownState, guessScorer, dict, reader);
             } else {
-                playGame(knownState, guessScorer, dict, reader);
+                // Works out what comes next while the feedback is being typed in
+                session.speculate(() -> layered(bruteGuessers.get(), store, strategyTree), SPECULATED_BUCKETS);
+                if (firstEnter.contains("HELP ME")) {
+                    helpMe(session, reader);
+                } else {
+                    playGame(session, reader);
+                }
             }
         }
+        if (dumpMetrics) {
+            System.out.print(SolverMetrics.dump());
+        }
     }
 
-    private static void helpMe(KnownState knownState, Guesser guessScorer, Dictionary dict, BufferedReader reader) throws IOException {
-        int n = 0;
+    private static Guesser layered(BruteGuesser bruteGuesser, @Nullable ResultStore store,
+                                   @Nullable StrategyTree strategyTree) {
+        Guesser guesser = store == null ? bruteGuesser : new CachingGuesser(bruteGuesser, store);
+        return strategyTree == null ? guesser : new StrategyTreeGuesser(strategyTree, guesser);
+    }
+
+    static String resultSignature(ScoringObjective objective) {
+        return "brute-5-" + objective.name();
+    }
+
+    private static String printTurn(SolverSession session, String verb) {
+        String guess = session.nextGuess();
+        Dictionary remaining = session.candidates();
+        System.out.println("Current dictionary size: " + remaining.size());
+        System.out.println("What we know is: " + session.knownState());
+        if (remaining.size() < 100) {
+            System.out.println("Remaining words: " + Ordering.natural().sortedCopy(remaining.getWords()));
+        }
+        System.out.println("The current best guesses are: " + session.printState());
+        System.out.println(verb + " next guess is: " + guess);
+        return guess;
+    }
+
+    private static void helpMe(SolverSession session, BufferedReader reader) throws IOException {
         while (true) {
-            guessScorer.process(dict, knownState);
-            Dictionary remaining = dict.filterToValid(knownState);
-            System.out.println("Current dictionary size: " + remaining.size());
-            System.out.println("What we know is: " + knownState);
-            if (remaining.size() < 100) {
-                System.out.println("Remaining words: " + Ordering.natural().sortedCopy(remaining.getWords()));
-            }
-            System.out.println("The current best guesses are: " + guessScorer.printState());
-            System.out.println("Your next guess is: " + guessScorer.getBestGuess());
+            printTurn(session, "Your");
             System.out.println("What did you guess?");
             String guess = reader.readLine().trim();
-            n++;
             System.out.println("What was the output?");
             String output = reader.readLine().trim();
-            if (output.equals("GGGGG")) {
-                System.out.println("Awesome! Took " + n + " guesses.");
+            if (output.equals("G".repeat(guess.length()))) {
+                System.out.println("Awesome! Took " + (session.turns() + 1) + " guesses.");
                 return;
             } else {
-                knownState.addGuess(guess, decode(output));
+                session.apply(guess, decode(output));
             }
         }
     }
 
-    private static void secretDebugMode(KnownState knownState, Guesser guessScorer, Dictionary dict, String firstEnter) {
+    private static void secretDebugMode(SolverSession session, String firstEnter) {
         String debugAnswer = firstEnter.split(" ")[1];
         System.out.println("Entering secret debug mode. Will play without you muahaha");
-        int n = 0;
         while (true) {
-            guessScorer.process(dict, knownState);
-            Dictionary remaining = dict.filterToValid(knownState);
-            System.out.println("Current dictionary size: " + remaining.size());
-            System.out.println("What we know is: " + knownState);
-            if (remaining.size() < 100) {
-                System.out.println("Remaining words: " + Ordering.natural().sortedCopy(remaining.getWords()));
-            }
-            System.out.println("The current best guesses are: " + guessScorer.printState());
-            System.out.println("Our next guess is: " + guessScorer.getBestGuess());
-            String currentGuess = guessScorer.getBestGuess();
+            String currentGuess = printTurn(session, "Our");
             if (currentGuess == null) {
                 System.out.println("How??");
                 return;
             }
-            n++;
             KnownState.Outcome[] lastGuess = KnownState.getOutcomes(debugAnswer, currentGuess);
             System.out.println("Scored: " + Arrays.toString(lastGuess));
-            knownState.addGuess(currentGuess, lastGuess);
+            session.apply(currentGuess, lastGuess);
             System.out.println("");
             if (currentGuess.equals(debugAnswer)) {
+                int n = session.turns();
                 if (n <= 6) {
                     System.out.println("I win! Took me " + n + " tries.");
                 } else {
@@ -103,36 +167,26 @@ public class App {
         }
     }
 
-    private static void playGame(KnownState knownState, Guesser guessScorer, Dictionary dict, BufferedReader reader) throws IOException {
-        int n = 0;
+    private static void playGame(SolverSession session, BufferedReader reader) throws IOException {
         while (true) {
-            guessScorer.process(dict, knownState);
-            Dictionary remaining = dict.filterToValid(knownState);
-            System.out.println("Current dictionary size: " + remaining.size());
-            System.out.println("What we know is: " + knownState);
-            if (remaining.size() < 100) {
-                System.out.println("Remaining words: " + Ordering.natural().sortedCopy(remaining.getWords()));
-            }
-            System.out.println("The current best guesses are: " + guessScorer.printState());
-            System.out.println("Your next guess is: " + guessScorer.getBestGuess());
-            String currentGuess = guessScorer.getBestGuess();
-            n++;
+            String currentGuess = printTurn(session, "Your");
             if (currentGuess == null) {
                 System.out.println("No guess remains. You do something wrong?");
                 return;
             }
 
             String input = reader.readLine().trim();
-            if (input.length() == 5) {
-                knownState.addGuess(currentGuess, decode(input));
-            } else if (input.equals("Win!")) {
-                System.out.println("Awesome! Took " + n + " guesses.");
+            // Checked first, "Win!" is as long as a four letter guess
+            if (input.equals("Win!") || input.equals("G".repeat(currentGuess.length()))) {
+                System.out.println("Awesome! Took " + (session.turns() + 1) + " guesses.");
                 return;
+            } else if (input.length() == currentGuess.length()) {
+                session.apply(currentGuess, decode(input));
             }
         }
     }
 
-    private static KnownState.Outcome[] decode(String input) {
+    static KnownState.Outcome[] decode(String input) {
         KnownState.Outcome[] outcomes = new KnownState.Outcome[input.length()];
         for (int i = 0; i < input.length(); i++) {
             switch (input.charAt(i)) {
@@ -0,0 +1,23 @@
+package wordle.guesser.app;
+
+import com.google.common.base.Stopwatch;
+import wordle.guesser.utilities.BruteGuesser;
+import wordle.guesser.utilities.Dictionary;
+import wordle.guesser.utilities.StrategyTree;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class BuildStrategyTree {
+
+    public static void main(String[] args) throws IOException {
+        Stopwatch timer = Stopwatch.createStarted();
+        Dictionary dict = Dictionary.wordle12k();
+        Path location = args.length > 0 ? Paths.get(args[0]) : StrategyTree.defaultLocation(dict);
+        StrategyTree tree = StrategyTree.build(dict, () -> new BruteGuesser(5, dict));
+        tree.write(location);
+        System.out.println("Wrote " + tree.size() + " states to " + location);
+        System.out.println("Elapsed: " + timer.elapsed());
+    }
+}
@@ -0,0 +1,19 @@
+package wordle.guesser.app;
+
+import wordle.guesser.utilities.Dictionary;
+import wordle.guesser.utilities.ResultStore;
+
+import java.io.IOException;
+
+public class CompactResults {
+
+    public static void main(String[] args) throws IOException {
+        String signature = args.length > 0 ? args[0] : App.RESULT_SIGNATURE;
+        Dictionary dict = Dictionary.wordle12k();
+        try (ResultStore store = ResultStore.open(dict, signature)) {
+            store.compact();
+            System.out.println("Compacted " + ResultStore.defaultLocation(dict, signature) + " to " + store.size()
+                    + " results");
+        }
+    }
+}
@@ -1,83 +1,36 @@
 package wordle.guesser.app;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.Ordering;
+import com.google.common.base.Stopwatch;
 import wordle.guesser.utilities.*;
 import wordle.guesser.utilities.Dictionary;
 
+import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 public class DebugTotals {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         BruteGuesser.DEBUG_FORCE_SINGLE_THREAD = false;
 //        BruteGuesser.DEBUG_SKIP_HARDCODED_ANSWER = true;
+        Stopwatch timer = Stopwatch.createStarted();
         Dictionary dict = Dictionary.wordle12k();
-        ExecutorService exec = Executors.newFixedThreadPool(1);
-        Collection<Future<Map<String, Integer>>> futures = new ArrayList<>();
-        for (Collection<String> batch : Iterables.partition(dict.getWords(), 100)) {
-            futures.add(exec.submit(() -> {
-                Map<String, Integer> wordToScore = new HashMap<>();
-                for (String word : batch) {
-                    int score = playOnce(word, dict);
-                    wordToScore.put(word, score);
-                }
-                return wordToScore;
-            }));
-        }
-        Multimap<Integer, String> scoreToWords = HashMultimap.create();
-        int i = 0;
-        for (Future<Map<String, Integer>> future : futures) {
-            try {
-                Map<String, Integer> wordToScore = future.get();
-                i+= wordToScore.size();
-                for (Map.Entry<String, Integer> entry : wordToScore.entrySet()) {
-                    scoreToWords.put(entry.getValue(), entry.getKey());
-                }
-                System.out.println("Played " + i + " games.");
-                System.out.println("Current state:");
-                printState(scoreToWords);
-            } catch (Exception e) {
-                throw new RuntimeException(e);
+        ScoringObjective objective = args.length > 0 ? ScoringObjective.named(args[0]) : ScoringObjective.EXPECTED_SIZE;
+        ResultStore store = ResultStore.open(dict, App.resultSignature(objective));
+        System.out.println("Starting with " + store.size() + " stored results");
+        Simulation simulation = new Simulation(dict, () -> new CachingGuesser(new BruteGuesser(5, dict, objective), store),
+                Runtime.getRuntime().availableProcessors());
+        Simulation.Result result = simulation.run(dict.getWords(), played -> {
+            if (played % 1000 == 0) {
+                System.out.println("Played " + played + " games in " + timer.elapsed());
             }
-        }
+        });
         System.out.println("Final state:");
-        printState(scoreToWords);
-    }
-
-    private static void printState(Multimap<Integer, String> scoreToWords) {
-        List<Integer> scores = Ordering.natural().sortedCopy(scoreToWords.keySet());
-        for (Integer score : scores) {
-            System.out.println("Score: " + score + ", count: " + scoreToWords.get(score).size());
-        }
+        result.print(System.out);
         System.out.println("");
-        for (Integer score : scores) {
-            System.out.println("Score: " + score + ", words: " + scoreToWords.get(score));
-        }
-        System.out.println("\n");
-    }
-
-    private static int playOnce(String answer, Dictionary dict) {
-        int n = 0;
-        KnownState knownState = new KnownState();
-        Guesser guessScorer = new BruteGuesser(5, dict);
-        while (true) {
-            guessScorer.process(dict, knownState);
-            String currentGuess = guessScorer.getBestGuess();
-            if (currentGuess == null) {
-                throw new IllegalStateException("bokr");
-            }
-            n++;
-            KnownState.Outcome[] lastGuess = KnownState.getOutcomes(answer, currentGuess);
-            knownState.addGuess(currentGuess, lastGuess);
-            if (currentGuess.equals(answer)) {
-                return n;
-            }
+        for (Map.Entry<Integer, Set<String>> entry : result.answersByGuesses().entrySet()) {
+            System.out.println("Score: " + entry.getKey() + ", words: " + entry.getValue());
         }
+        System.out.println("Distinct states: " + simulation.memoSize());
+        System.out.println("Elapsed: " + timer.elapsed());
     }
 }
@@ -0,0 +1,40 @@
+package wordle.guesser.app;
+
+import com.google.common.base.Stopwatch;
+import wordle.guesser.utilities.Dictionary;
+import wordle.guesser.utilities.OptimalSolver;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Usage: SolveOptimal [TOTAL_GUESSES|WORST_CASE] [guess width, 0 for every guess]. Rerunning picks up from the last
+ * checkpoint.
+ */
+public class SolveOptimal {
+
+    public static void main(String[] args) throws IOException {
+        Stopwatch timer = Stopwatch.createStarted();
+        Dictionary dict = Dictionary.wordle12k();
+        OptimalSolver.Objective objective = args.length > 0
+                ? OptimalSolver.Objective.valueOf(args[0])
+                : OptimalSolver.Objective.TOTAL_GUESSES;
+        int guessWidth = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        Path checkpoint = OptimalSolver.defaultCheckpoint(dict, objective, guessWidth);
+        try (OptimalSolver solver = new OptimalSolver(dict, objective, guessWidth,
+                Runtime.getRuntime().availableProcessors())) {
+            solver.setCheckpoint(checkpoint, Duration.ofMinutes(5));
+            int value = solver.solve();
+            if (objective == OptimalSolver.Objective.TOTAL_GUESSES) {
+                System.out.printf("Total guesses: %d, average %.4f%n", value, value / (double) dict.getWords().size());
+            } else {
+                System.out.println("Worst case guesses: " + value);
+            }
+            System.out.println("First guess: " + solver.bestGuess(dict.getWords()));
+            System.out.println("Searched " + solver.statesSearched() + " states, " + solver.tableSize()
+                    + " in the table, checkpointed to " + checkpoint);
+        }
+        System.out.println("Elapsed: " + timer.elapsed());
+    }
+}
@@ -0,0 +1,167 @@
+package wordle.guesser.app;
+
+import wordle.guesser.utilities.*;
+
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves games to many clients from one warm JVM. Each connection is its own game with its own guesser, but they all
+ * share the dictionary, pattern matrix, result store, strategy tree and scoring pool, so only the first client pays
+ * for warming them up.
+ * <p>
+ * Scoring runs on the shared {@link ScoringEngine}, whose pool has a thread per core, so sessions scoring at the same
+ * time split the cores between them rather than each trying to use all of them. Answers from the strategy tree and
+ * result store don't score at all. Everything else a session does is cheap, and each one gets a virtual thread when
+ * the JVM has them.
+ * <p>
+ * The protocol is one command per line, one reply line per command:
+ * <pre>
+ *   GUESS              -> GUESS &lt;word&gt; &lt;candidates left&gt;, or ERR once no candidate is left
+ *   APPLY &lt;word&gt; BYGBB -> OK &lt;candidates left&gt;
+ *   NEW                -> OK &lt;candidates left&gt;
+ *   QUIT               -> BYE
+ * </pre>
+ * Anything else, or a command that fails, gets ERR and a reason. Usage: SolverServer [--port N] [--budget-ms N]
+ * <p>
+ * Metrics are published over JMX, see {@link SolverMetrics}. Set its Enabled attribute to start timing calls.
+ */
+public class SolverServer {
+
+    private static final int DEFAULT_PORT = 7777;
+
+    private final Dictionary dict;
+    @Nullable
+    private final StrategyTree tree;
+    private final ResultStore store;
+    private final ScoringEngine engine = ScoringEngine.shared();
+    private final AtomicInteger sessions = new AtomicInteger();
+    @Nullable
+    private final Duration budget;
+
+    SolverServer(Dictionary dict, ResultStore store, @Nullable StrategyTree tree, @Nullable Duration budget) {
+        this.dict = dict;
+        this.store = store;
+        this.tree = tree;
+        this.budget = budget;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        Duration budget = null;
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals("--port")) {
+                port = Integer.parseInt(args[i + 1]);
+            } else if (args[i].equals("--budget-ms")) {
+                budget = Duration.ofMillis(Long.parseLong(args[i + 1]));
+            }
+        }
+        SolverMetrics.registerMBean();
+        Dictionary dict = Dictionary.wordle12k();
+        ResultStore store = ResultStore.open(dict, App.RESULT_SIGNATURE);
+        Path strategyTree = StrategyTree.defaultLocation(dict);
+        StrategyTree tree = Files.exists(strategyTree) ? StrategyTree.open(strategyTree, dict) : null;
+        // Warm the pattern matrix before taking clients rather than on the first one's turn
+        PatternMatrix.forDictionary(dict);
+        new SolverServer(dict, store, tree, budget).serve(port);
+    }
+
+    void serve(int port) throws IOException {
+        ExecutorService executor = sessionExecutor();
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            System.out.println("Serving " + dict.size() + " words on " + server.getLocalSocketAddress());
+            while (true) {
+                Socket socket = server.accept();
+                executor.execute(() -> handle(socket));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void handle(Socket socket) {
+        int id = sessions.incrementAndGet();
+        try (Socket s = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(s.getOutputStream(), true, StandardCharsets.UTF_8)) {
+            SolverSession session = newSession();
+            out.println("READY " + id);
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] parts = line.trim().toUpperCase(Locale.ROOT).split("\\s+");
+                try {
+                    switch (parts[0]) {
+                        case "GUESS":
+                            // Guessers still come up with a word for no candidates at all
+                            String guess = session.candidates().size() == 0 ? null : session.nextGuess();
+                            if (guess == null) {
+                                out.println("ERR no candidates left, the feedback given doesn't fit any word");
+                                break;
+                            }
+                            out.println("GUESS " + guess + " " + session.candidates().size());
+                            break;
+                        case "APPLY":
+                            if (parts.length != 3 || !parts[1].matches("[A-Z]{" + Words.LENGTH + "}")
+                                    || !parts[2].matches("[BYG]{" + Words.LENGTH + "}")) {
+                                out.println("ERR usage: APPLY <five letter word> <five outcomes as B, Y and G>");
+                                break;
+                            }
+                            session.apply(parts[1], App.decode(parts[2]));
+                            out.println("OK " + session.candidates().size());
+                            break;
+                        case "NEW":
+                            session = newSession();
+                            out.println("OK " + session.candidates().size());
+                            break;
+                        case "QUIT":
+                            out.println("BYE");
+                            return;
+                        default:
+                            out.println("ERR unknown command: " + parts[0]);
+                    }
+                } catch (RuntimeException e) {
+                    // Keeps the connection's game going, whatever the command tripped over
+                    out.println("ERR " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Session " + id + " ended: " + e);
+        }
+    }
+
+    private SolverSession newSession() {
+        BruteGuesser bruteGuesser = new BruteGuesser(5, dict, engine);
+        bruteGuesser.setTimeBudget(budget);
+        Guesser guesser = new CachingGuesser(bruteGuesser, store);
+        if (tree != null) {
+            guesser = new StrategyTreeGuesser(tree, guesser);
+        }
+        return new SolverSession(dict, guesser);
+    }
+
+
+    /**
+     * A thread per session, virtual when the JVM has them (Java 21 on), from a cached pool otherwise.
+     */
+    static ExecutorService sessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
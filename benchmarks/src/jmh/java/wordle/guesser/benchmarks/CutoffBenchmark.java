@@ -0,0 +1,51 @@
+package wordle.guesser.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import wordle.guesser.utilities.BruteGuesser;
+import wordle.guesser.utilities.Guesser;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BruteGuesser with and without abandoning a guess once its partial histogram is worse than the guesses being kept.
+ */
+public class CutoffBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Cutoff {
+
+        @Param({"true", "false"})
+        public boolean cutoff;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            BruteGuesser.DEBUG_DISABLE_CUTOFF = !cutoff;
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            BruteGuesser.DEBUG_DISABLE_CUTOFF = false;
+        }
+    }
+
+    @Benchmark
+    @Warmup(iterations = 2, time = 30, timeUnit = TimeUnit.SECONDS)
+    @Measurement(iterations = 3, time = 30, timeUnit = TimeUnit.SECONDS)
+    public String bruteGuesser(SolverState state, Cutoff cutoff) {
+        Guesser guesser = new BruteGuesser(5, state.dictionary);
+        if (state.knownState.isEmpty()) {
+            guesser.determineFirstWords(state.dictionary);
+        } else {
+            guesser.process(state.dictionary, state.knownState);
+        }
+        return guesser.getBestGuess();
+    }
+}
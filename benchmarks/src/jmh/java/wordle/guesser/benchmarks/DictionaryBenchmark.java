@@ -0,0 +1,26 @@
+package wordle.guesser.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import wordle.guesser.utilities.Dictionary;
+
+/**
+ * Note that sizeAfterFiltering and filterToValid (without guesses) are cached per state, so after the first
+ * invocation these measure the cached path the guessers mostly hit.
+ */
+public class DictionaryBenchmark {
+
+    @Benchmark
+    public Dictionary filterToValid(SolverState state) {
+        return state.dictionary.filterToValid(state.knownState);
+    }
+
+    @Benchmark
+    public int sizeAfterFiltering(SolverState state) {
+        return state.dictionary.sizeAfterFiltering(state.knownState);
+    }
+
+    @Benchmark
+    public long prefilterWordsIgnoringWrongSpot(SolverState state) {
+        return state.dictionary.prefilterWordsIgnoringWrongSpot(state.knownState).count();
+    }
+}
@@ -0,0 +1,37 @@
+package wordle.guesser.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Warmup;
+import wordle.guesser.utilities.BruteGuesser;
+import wordle.guesser.utilities.Guesser;
+import wordle.guesser.utilities.SimpleGuesser;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full turn of each guesser. BruteGuesser would answer the empty state with its hardcoded first guess, so there it's
+ * made to score the opener like any other turn.
+ */
+public class GuesserBenchmark {
+
+    @Benchmark
+    public String simpleGuesser(SolverState state) {
+        Guesser guesser = new SimpleGuesser(5);
+        guesser.process(state.dictionary, state.knownState);
+        return guesser.getBestGuess();
+    }
+
+    @Benchmark
+    @Warmup(iterations = 2, time = 30, timeUnit = TimeUnit.SECONDS)
+    @Measurement(iterations = 3, time = 30, timeUnit = TimeUnit.SECONDS)
+    public String bruteGuesser(SolverState state) {
+        Guesser guesser = new BruteGuesser(5, state.dictionary);
+        if (state.knownState.isEmpty()) {
+            guesser.determineFirstWords(state.dictionary);
+        } else {
+            guesser.process(state.dictionary, state.knownState);
+        }
+        return guesser.getBestGuess();
+    }
+}
@@ -0,0 +1,52 @@
+package wordle.guesser.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import wordle.guesser.utilities.Dictionary;
+import wordle.guesser.utilities.KnownState;
+import wordle.guesser.utilities.Words;
+
+/**
+ * Feedback for one (guess, answer) pair, walking through the dictionary so nothing gets constant folded.
+ */
+@State(Scope.Thread)
+public class KnownStateBenchmark {
+
+    private String[] words;
+    private int[] packed;
+    private int guess;
+    private int answer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Dictionary dictionary = Dictionary.wordle12k();
+        words = dictionary.getWords().toArray(new String[0]);
+        packed = new int[words.length];
+        for (int i = 0; i < words.length; i++) {
+            packed[i] = Words.pack(words[i]);
+        }
+    }
+
+    @Benchmark
+    public KnownState.Outcome[] getOutcomes() {
+        next();
+        return KnownState.getOutcomes(words[answer], words[guess]);
+    }
+
+    @Benchmark
+    public int patternCode() {
+        next();
+        return Words.patternCode(packed[guess], packed[answer]);
+    }
+
+    private void next() {
+        answer++;
+        if (answer == words.length) {
+            answer = 0;
+            guess = guess + 1 == words.length ? 0 : guess + 1;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package wordle.guesser.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import wordle.guesser.utilities.Dictionary;
+import wordle.guesser.utilities.KnownState;
+
+/**
+ * The full wordle dictionary and a known state a few guesses into a game for FAZES.
+ */
+@State(Scope.Benchmark)
+public class SolverState {
+
+    private static final String ANSWER = "FAZES";
+    private static final String[] GUESSES = {"LARES", "COMPT"};
+
+    @Param({"0", "1", "2"})
+    public int guesses;
+
+    public Dictionary dictionary;
+    public KnownState knownState;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dictionary = Dictionary.wordle12k();
+        knownState = new KnownState();
+        for (int i = 0; i < guesses; i++) {
+            knownState.addGuess(GUESSES[i], KnownState.getOutcomes(ANSWER, GUESSES[i]));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package wordle.guesser.utilities;
+
+import java.util.stream.IntStream;
+
+/**
+ * Helpers for word sets stored as {@code long[]} bitsets over word ordinals.
+ */
+final class Bitsets {
+
+    private Bitsets() {}
+
+    static long[] empty(int size) {
+        return new long[words(size)];
+    }
+
+    static long[] allSet(int size) {
+        long[] bits = new long[words(size)];
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = -1L;
+        }
+        int tail = size & 63;
+        if (tail != 0) {
+            bits[bits.length - 1] = (1L << tail) - 1;
+        }
+        return bits;
+    }
+
+    static void set(long[] bits, int ordinal) {
+        bits[ordinal >>> 6] |= 1L << ordinal;
+    }
+
+    static void clear(long[] bits, int ordinal) {
+        bits[ordinal >>> 6] &= ~(1L << ordinal);
+    }
+
+    static boolean get(long[] bits, int ordinal) {
+        return (bits[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    static void and(long[] target, long[] other) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] &= other[i];
+        }
+    }
+
+    static void andNot(long[] target, long[] other) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] &= ~other[i];
+        }
+    }
+
+    static int cardinality(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    static IntStream stream(long[] bits) {
+        return IntStream.range(0, bits.length)
+                .flatMap(i -> {
+                    long word = bits[i];
+                    int[] ordinals = new int[Long.bitCount(word)];
+                    for (int j = 0; j < ordinals.length; j++) {
+                        ordinals[j] = (i << 6) + Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                    }
+                    return IntStream.of(ordinals);
+                });
+    }
+
+    private static int words(int size) {
+        return (size + 63) >>> 6;
+    }
+}
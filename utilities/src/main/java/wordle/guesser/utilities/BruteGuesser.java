@@ -1,13 +1,19 @@
 package wordle.guesser.utilities;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Joiner;
 import com.google.common.base.Stopwatch;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.Iterables;
 
 import javax.annotation.Nullable;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 
 /**
  * In the remaining dictionary, we know the frequency of each letter.
@@ -18,98 +24,436 @@ public class BruteGuesser implements Guesser {
     @VisibleForTesting
     public static boolean DEBUG_FORCE_SINGLE_THREAD = false;
     public static boolean DEBUG_SKIP_HARDCODED_ANSWER = false;
+    @VisibleForTesting
+    public static boolean DEBUG_DISABLE_CUTOFF = false;
     // Scientifically chosen
-    private static final String BEST_FIRST_GUESS = "LARES";
-    private final SortedMap<Integer, Set<String>> scoreToGuesses;
+    static final String BEST_FIRST_GUESS = "LARES";
+    private static final ThreadLocal<int[]> HISTOGRAM = ThreadLocal.withInitial(() -> new int[KnownState.PATTERN_COUNT]);
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+    // The first wave after the most promising guess, each one after is four times bigger
+    private static final int FIRST_WAVE = 256;
+    private static final Supplier<ScoringEngine> SINGLE_THREAD_ENGINE = Suppliers.memoize(() -> new ScoringEngine(1));
+    private TopGuesses scoreToGuesses;
     private final int guessesToKeep;
     private final Dictionary rawDictionary;
+    private final GuessPool guessPool;
+    private final Supplier<PatternMatrix> patternMatrix;
+    private final ScoringEngine engine;
+    private final ScoringObjective objective;
+    // Each process call takes the next number, and stops once cancelledCall reaches it
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong cancelledCall = new AtomicLong();
+    @Nullable
+    private volatile ProgressListener progressListener;
+    @Nullable
+    private Duration timeBudget;
+    private int guessesScored;
+    private int guessesToScore;
+    private int wordLength = Words.LENGTH;
 
     public BruteGuesser(int guessesToKeep, Dictionary rawDictionary) {
-        this.scoreToGuesses = new TreeMap<>();
+        this(guessesToKeep, rawDictionary, ScoringEngine.shared());
+    }
+
+    public BruteGuesser(int guessesToKeep, Dictionary rawDictionary, ScoringEngine engine) {
+        this(guessesToKeep, rawDictionary, engine, ScoringObjective.EXPECTED_SIZE);
+    }
+
+    public BruteGuesser(int guessesToKeep, Dictionary rawDictionary, ScoringObjective objective) {
+        this(guessesToKeep, rawDictionary, ScoringEngine.shared(), objective);
+    }
+
+    public BruteGuesser(int guessesToKeep, Dictionary rawDictionary, ScoringEngine engine, ScoringObjective objective) {
+        this(guessesToKeep, rawDictionary, engine, objective, GuessPool.all(rawDictionary.getWords()));
+    }
+
+    public BruteGuesser(int guessesToKeep, Dictionary rawDictionary, ScoringEngine engine, ScoringObjective objective,
+                        GuessPool guessPool) {
+        this.scoreToGuesses = new TopGuesses(guessesToKeep);
         this.guessesToKeep = guessesToKeep;
         this.rawDictionary = rawDictionary;
+        this.guessPool = guessPool;
+        this.patternMatrix = Suppliers.memoize(() -> PatternMatrix.forDictionary(rawDictionary));
+        this.engine = engine;
+        this.objective = objective;
     }
 
     @Override
     public void determineFirstWords(Dictionary dictionary) {
-        process(dictionary, new KnownState(), true);
+        process(dictionary, KnownState.forDictionary(dictionary), true, NO_DEADLINE);
     }
 
     @Override
     public void process(Dictionary dictionary, KnownState state) {
-        process(dictionary, state, false);
+        process(dictionary, state, false, timeBudget == null ? NO_DEADLINE : deadline(timeBudget));
+    }
+
+    /**
+     * Scores guesses most promising first and stops once budget is used up, with the best of the guesses scored so
+     * far as the answer. At least one guess always gets scored. {@link #guessesScored()} says how far it got.
+     */
+    public void process(Dictionary dictionary, KnownState state, Duration budget) {
+        process(dictionary, state, false, deadline(budget));
+    }
+
+    /**
+     * Budget for every {@link #process(Dictionary, KnownState)} from now on, or null to always score every guess.
+     */
+    public void setTimeBudget(@Nullable Duration timeBudget) {
+        this.timeBudget = timeBudget;
+    }
+
+    /**
+     * Called from a scoring thread after each batch of guesses.
+     */
+    public void setProgressListener(@Nullable ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Stops the process call in progress, which keeps the best guess scored so far. Safe to call from any thread.
+     * Calls that start afterwards aren't affected, so a cancel that arrives just as a call returns can't cut the next
+     * one short. One that isn't running yet has to be kept from starting instead, e.g. by cancelling its future.
+     */
+    @Override
+    public void cancel() {
+        cancelledCall.accumulateAndGet(calls.get(), Math::max);
+    }
+
+    private void process(Dictionary dictionary, KnownState state, boolean force, long deadline) {
+        long start = SolverMetrics.PROCESS.start();
+        long call = calls.incrementAndGet();
+        try {
+            processInternal(dictionary, state, force, () -> cancelledCall.get() >= call, deadline);
+        } finally {
+            SolverMetrics.PROCESS.stop(start);
+            SolverMetrics.GUESSES_SCORED.add(guessesScored);
+        }
     }
 
-    private void process(Dictionary dictionary, KnownState state, boolean force) {
-        this.scoreToGuesses.clear();
-        if (state.isEmpty() && !force && !DEBUG_SKIP_HARDCODED_ANSWER) {
+    private void processInternal(Dictionary dictionary, KnownState state, boolean force, BooleanSupplier cancelled,
+                                 long deadline) {
+        this.scoreToGuesses = new TopGuesses(guessesToKeep);
+        this.guessesScored = 0;
+        this.guessesToScore = 0;
+        this.wordLength = state.length();
+        boolean fiveLetters = wordLength == Words.LENGTH;
+        if (state.isEmpty() && !force && !DEBUG_SKIP_HARDCODED_ANSWER && fiveLetters) {
             return;
         }
+        long prepareStart = SolverMetrics.PROCESS_PREPARE.start();
         Dictionary prefilteredDictionary = dictionary.filterToValid(state);
-        int threadCount = DEBUG_FORCE_SINGLE_THREAD ? 1 : Runtime.getRuntime().availableProcessors();
-        ExecutorService exec = Executors.newFixedThreadPool(threadCount);
-        Map<String, Future<Integer>> futureScores = new HashMap<>();
-        for (String guess : rawDictionary.getWords()) {
-            futureScores.put(guess, exec.submit(() -> {
-                return scoreBetter(state, prefilteredDictionary, guess);
-            }));
-        }
-        exec.shutdown();
-        int done = 0;
+        // Other lengths don't get a pattern matrix, there'd be too many patterns to fit a byte
+        PatternMatrix matrix = fiveLetters ? patternMatrix.get() : null;
+        // Candidates that look like many others land in big buckets, counting those first trips the cutoff sooner
+        List<String> candidates = sortedDescending(prefilteredDictionary.getWords(),
+                positionalResemblance(prefilteredDictionary.getWords()));
+        int[] candidateOrdinals = new int[fiveLetters ? candidates.size() : 0];
+        int[] packedCandidates = new int[fiveLetters ? candidates.size() : 0];
+        long[] longCandidates = new long[fiveLetters ? 0 : candidates.size()];
+        for (int i = 0; i < candidates.size(); i++) {
+            if (fiveLetters) {
+                candidateOrdinals[i] = matrix.ordinal(candidates.get(i));
+                packedCandidates[i] = Words.pack(candidates.get(i));
+            } else {
+                longCandidates[i] = Words.packLong(candidates.get(i));
+            }
+        }
+        AtomicInteger done = new AtomicInteger();
         Stopwatch timer = Stopwatch.createStarted();
-        for (Map.Entry<String, Future<Integer>> entry : futureScores.entrySet()) {
-            try {
-                Integer score = entry.getValue().get();
-                done++;
-                if (done % 100 == 0 && timer.elapsed(TimeUnit.SECONDS) > 20) {
-                    System.out.println("Completed " + done + " in " + timer.elapsed());
+        ScoringEngine scoringEngine = DEBUG_FORCE_SINGLE_THREAD ? SINGLE_THREAD_ENGINE.get() : engine;
+        // Only one guess of each equivalence class is scored, the rest get its score at the end
+        Map<String, List<String>> equivalentGuesses =
+                equivalenceClasses(guessPool.guesses(state, candidates), candidates);
+        List<String> guesses = new ArrayList<>(equivalentGuesses.keySet());
+        ScoringEngine.BoundedScorer scorer = (guess, cutoff) -> {
+            int score = fiveLetters
+                    ? scoreBetter(matrix, candidateOrdinals, packedCandidates, guess, cutoff)
+                    : scoreAnyLength(longCandidates, guess);
+            int completed = done.incrementAndGet();
+            if (completed % 100 == 0 && timer.elapsed(TimeUnit.SECONDS) > 20) {
+                System.out.println("Completed " + completed + " in " + timer.elapsed());
+            }
+            return score;
+        };
+        BooleanSupplier stop = () -> cancelled.getAsBoolean()
+                || (deadline != NO_DEADLINE && System.nanoTime() - deadline >= 0);
+        this.guessesToScore = guesses.size();
+        SolverMetrics.PROCESS_PREPARE.stop(prepareStart);
+        if (guesses.isEmpty()) {
+            return;
+        }
+        long scoreStart = SolverMetrics.PROCESS_SCORE.start();
+
+        // Waves of growing size: each one starts from the cutoff of everything before it, and running out of time
+        // leaves a prefix of the most promising guesses scored
+        TopGuesses best = new TopGuesses(guessesToKeep);
+        int from = 0;
+        // A guess of the wrong length is abandoned even without a cutoff, the first wave needs a real score
+        while (from < guesses.size() && best.isEmpty()) {
+            int score = scorer.score(guesses.get(from), ScoringEngine.ABANDONED - 1);
+            if (score != ScoringEngine.ABANDONED) {
+                best.add(score, guesses.get(from));
+            }
+            from++;
+        }
+        int wave = FIRST_WAVE;
+        while (from < guesses.size() && !stop.getAsBoolean()) {
+            int to = Math.min(guesses.size(), from + wave);
+            int cutoff = best.isFull() ? best.worstScore() : ScoringEngine.ABANDONED - 1;
+            best.merge(scoringEngine.score(guesses.subList(from, to), scorer, guessesToKeep, cutoff, stop));
+            from = to;
+            wave *= 4;
+            ProgressListener listener = progressListener;
+            if (listener != null) {
+                listener.progress(done.get(), guesses.size(), bestOf(best));
+            }
+        }
+        TopGuesses expanded = new TopGuesses(guessesToKeep);
+        best.asMap().forEach((score, representatives) -> {
+            for (String representative : representatives) {
+                for (String guess : equivalentGuesses.get(representative)) {
+                    expanded.add(score, guess);
                 }
-                String guess = entry.getKey();
-                scoreToGuesses.putIfAbsent(score, new HashSet<>());
-                scoreToGuesses.get(score).add(guess);
-                if (scoreToGuesses.size() > guessesToKeep) {
-                    scoreToGuesses.remove(scoreToGuesses.lastKey());
+            }
+        });
+        this.scoreToGuesses = expanded;
+        this.guessesScored = done.get();
+        SolverMetrics.PROCESS_SCORE.stop(scoreStart);
+    }
+
+    /**
+     * Groups guesses that split the candidates the same way, keyed by the first guess of each group in the order given.
+     * The feedback on a guess's copies of a letter only depends on where the answer has that letter, so a letter every
+     * candidate has in the same places (or that none of them has) gets the same feedback from all of them and tells
+     * nothing apart. Guesses that only differ in such letters are interchangeable: late in a game most letters are
+     * either absent or pinned by greens, and thousands of guesses collapse into a few groups. A guess that could be the
+     * answer keeps a group of its own, as the objectives count that candidate differently.
+     */
+    static Map<String, List<String>> equivalenceClasses(List<String> guesses, Collection<String> candidates) {
+        // Per letter, the positions every candidate has it in, or -1 once two candidates disagree
+        int[] positions = new int[26];
+        boolean first = true;
+        for (String candidate : candidates) {
+            int[] these = new int[26];
+            for (int i = 0; i < candidate.length(); i++) {
+                these[Integer.numberOfTrailingZeros(PackedState.letterBit(candidate.charAt(i)))] |= 1 << i;
+            }
+            for (int letter = 0; letter < 26; letter++) {
+                if (first) {
+                    positions[letter] = these[letter];
+                } else if (positions[letter] != these[letter]) {
+                    positions[letter] = -1;
                 }
-            } catch (Exception e) {
-                throw new RuntimeException("ah fuck", e);
             }
+            first = false;
         }
+        Set<String> possibleAnswers = candidates instanceof Set ? (Set<String>) candidates : new HashSet<>(candidates);
+        Map<Long, List<String>> byProjection = new HashMap<>();
+        Map<String, List<String>> classes = new LinkedHashMap<>();
+        for (String guess : guesses) {
+            if (possibleAnswers.contains(guess)) {
+                List<String> alone = new ArrayList<>();
+                alone.add(guess);
+                classes.put(guess, alone);
+                continue;
+            }
+            long projection = guess.length();
+            for (int i = guess.length() - 1; i >= 0; i--) {
+                int letter = Integer.numberOfTrailingZeros(PackedState.letterBit(guess.charAt(i)));
+                // Letters as 1-26 so that 0 can stand for any letter that tells nothing apart
+                projection = (projection << 5) | (positions[letter] < 0 ? letter + 1 : 0);
+            }
+            List<String> equivalent = byProjection.get(projection);
+            if (equivalent == null) {
+                equivalent = new ArrayList<>();
+                byProjection.put(projection, equivalent);
+                classes.put(guess, equivalent);
+            }
+            equivalent.add(guess);
+        }
+        return classes;
+    }
+
+    private static long deadline(Duration budget) {
+        long deadline = System.nanoTime() + budget.toNanos();
+        return deadline == NO_DEADLINE ? deadline + 1 : deadline;
     }
 
-    private int scoreBetter(KnownState state,
-                            Dictionary prefilteredDictionary,
-                            String guess) {
-        int aggregateScore = 0;
-        for (String potentialAnswer : prefilteredDictionary.getWords()) {
-            KnownState copyState = state.deepCopy();
-            copyState.addGuess(guess, KnownState.getOutcomes(potentialAnswer, guess));
-            int score = prefilteredDictionary.sizeAfterFiltering(copyState);
-            aggregateScore += score;
+    /**
+     * How many guesses the last process call scored (or ruled out), out of {@link #guessesToScore()}. Both count
+     * each class of equivalent guesses once.
+     */
+    public int guessesScored() {
+        return guessesScored;
+    }
+
+    public int guessesToScore() {
+        return guessesToScore;
+    }
+
+    @Override
+    public boolean isComplete() {
+        return guessesScored == guessesToScore;
+    }
+
+    private int scoreBetter(PatternMatrix matrix,
+                            int[] candidateOrdinals,
+                            int[] packedCandidates,
+                            String guess,
+                            int cutoff) {
+        int guessOrdinal = matrix.ordinal(guess);
+        int packedGuess = Words.pack(guess);
+        int[] histogram = HISTOGRAM.get();
+        Arrays.fill(histogram, 0);
+        boolean checkCutoff = objective.boundable() && cutoff < ScoringEngine.ABANDONED - 1 && !DEBUG_DISABLE_CUTOFF;
+        int partial = 0;
+        for (int i = 0; i < candidateOrdinals.length; i++) {
+            int pattern;
+            if (guessOrdinal >= 0 && candidateOrdinals[i] >= 0) {
+                pattern = matrix.pattern(guessOrdinal, candidateOrdinals[i]);
+            } else {
+                pattern = Words.patternCode(packedGuess, packedCandidates[i]);
+            }
+            int count = ++histogram[pattern];
+            if (checkCutoff && pattern != ScoringObjective.ALL_GREEN
+                    && (partial = objective.grow(partial, count)) > cutoff) {
+                return ScoringEngine.ABANDONED;
+            }
+        }
+        return objective.score(histogram, candidateOrdinals.length);
+    }
+
+    /**
+     * Histogram of the buckets that occur, then the all-green one, so it doesn't matter that twelve letter words have
+     * half a million patterns.
+     */
+    private int scoreAnyLength(long[] packedCandidates, String guess) {
+        if (guess.length() != wordLength) {
+            return ScoringEngine.ABANDONED;
+        }
+        long packedGuess = Words.packLong(guess);
+        int[] codes = new int[packedCandidates.length];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = Words.patternCode(packedGuess, packedCandidates[i], wordLength);
+        }
+        Arrays.sort(codes);
+        int allGreen = Words.patternCount(wordLength) - 1;
+        int[] histogram = new int[codes.length + 1];
+        int buckets = 0;
+        for (int i = 0, j; i < codes.length; i = j) {
+            for (j = i + 1; j < codes.length && codes[j] == codes[i]; j++) {
+            }
+            if (codes[i] == allGreen) {
+                histogram[codes.length] = j - i;
+            } else {
+                histogram[buckets++] = j - i;
+            }
+        }
+        histogram[buckets] = histogram[codes.length];
+        return objective.score(Arrays.copyOf(histogram, buckets + 1), codes.length);
+    }
+
+    /**
+     * How many candidates share each letter of the word in the same position.
+     */
+    private static ToIntFunction<String> positionalResemblance(Collection<String> candidates) {
+        int length = candidates.stream().mapToInt(String::length).max().orElse(0);
+        int[][] counts = new int[length][26];
+        for (String candidate : candidates) {
+            for (int i = 0; i < candidate.length(); i++) {
+                counts[i][candidate.charAt(i) - 'A']++;
+            }
         }
-        return aggregateScore;
+        return word -> {
+            int resemblance = 0;
+            for (int i = 0; i < Math.min(word.length(), length); i++) {
+                resemblance += counts[i][word.charAt(i) - 'A'];
+            }
+            return resemblance;
+        };
+    }
+
+    /**
+     * Cheap guess quality: letters in about half of the candidates tell the most apart.
+     */
+    static ToIntFunction<String> letterCoverage(Collection<String> candidates) {
+        int[] counts = new int[26];
+        for (String candidate : candidates) {
+            int seen = 0;
+            for (int i = 0; i < candidate.length(); i++) {
+                seen |= 1 << (candidate.charAt(i) - 'A');
+            }
+            for (; seen != 0; seen &= seen - 1) {
+                counts[Integer.numberOfTrailingZeros(seen)]++;
+            }
+        }
+        int size = candidates.size();
+        return word -> {
+            int seen = 0;
+            int coverage = 0;
+            for (int i = 0; i < word.length(); i++) {
+                int letter = word.charAt(i) - 'A';
+                if ((seen & (1 << letter)) == 0) {
+                    seen |= 1 << letter;
+                    coverage += Math.min(counts[letter], size - counts[letter]);
+                }
+            }
+            return coverage;
+        };
+    }
+
+    static List<String> sortedDescending(Collection<String> words, ToIntFunction<String> key) {
+        List<String> list = new ArrayList<>(words);
+        long[] keyed = new long[list.size()];
+        for (int i = 0; i < keyed.length; i++) {
+            keyed[i] = ((long) -key.applyAsInt(list.get(i)) << 32) | i;
+        }
+        Arrays.sort(keyed);
+        List<String> sorted = new ArrayList<>(list.size());
+        for (long entry : keyed) {
+            sorted.add(list.get((int) entry));
+        }
+        return sorted;
     }
 
     @Override
     @Nullable
     public String getBestGuess() {
         if (scoreToGuesses.isEmpty()) {
-            return BEST_FIRST_GUESS;
+            return wordLength == Words.LENGTH ? BEST_FIRST_GUESS : null;
         }
-        return Iterables.getFirst(scoreToGuesses.get(scoreToGuesses.firstKey()), null);
+        return bestOf(scoreToGuesses);
+    }
+
+    /**
+     * The score of {@link #getBestGuess()} from the last process call, {@link ScoringEngine#ABANDONED} if nothing
+     * was scored.
+     */
+    int bestScore() {
+        return scoreToGuesses.isEmpty() ? ScoringEngine.ABANDONED : scoreToGuesses.asMap().firstKey();
+    }
+
+    private static String bestOf(TopGuesses guesses) {
+        SortedMap<Integer, Set<String>> scores = guesses.asMap();
+        return Iterables.getFirst(scores.get(scores.firstKey()), null);
     }
 
     @Override
     public String printState() {
-        StringBuilder sb = new StringBuilder();
-        scoreToGuesses.forEach((score, words) -> {
-            sb.append(score).append(": [");
-            if (words.size() < 50) {
-                sb.append(Joiner.on(", ").join(words)).append("], ");
-            } else {
-                sb.append(words.size()).append(" words in dict], ");
-            }
-        });
-        return sb.toString();
+        if (isComplete()) {
+            return scoreToGuesses.toString();
+        }
+        return scoreToGuesses + "(scored " + guessesScored + " of " + guessesToScore + " guesses)";
+    }
+
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * @param scored guesses scored (or ruled out) so far
+         * @param bestSoFar what {@link #getBestGuess()} would be if scoring stopped now
+         */
+        void progress(int scored, int total, String bestSoFar);
     }
 
 }
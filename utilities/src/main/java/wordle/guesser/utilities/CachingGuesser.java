@@ -0,0 +1,61 @@
+package wordle.guesser.utilities;
+
+import javax.annotation.Nullable;
+
+/**
+ * Looks each state and set of candidates up in a {@link ResultStore} before asking the delegate, and stores whatever
+ * the delegate decides unless it stopped early.
+ * The store has to have been opened with a signature matching the delegate.
+ */
+public class CachingGuesser implements Guesser {
+
+    private final Guesser delegate;
+    private final ResultStore store;
+    @Nullable
+    private String storedGuess;
+
+    public CachingGuesser(Guesser delegate, ResultStore store) {
+        this.delegate = delegate;
+        this.store = store;
+    }
+
+    @Override
+    public void determineFirstWords(Dictionary dictionary) {
+        delegate.determineFirstWords(dictionary);
+    }
+
+    @Override
+    public void process(Dictionary dictionary, KnownState state) {
+        PackedState key = state.toPacked();
+        long candidates = ResultStore.fingerprint(dictionary);
+        this.storedGuess = store.get(key, candidates);
+        if (storedGuess == null) {
+            delegate.process(dictionary, state);
+            String guess = delegate.getBestGuess();
+            if (guess != null && delegate.isComplete()) {
+                store.put(key, candidates, guess);
+            }
+        }
+    }
+
+    @Nullable
+    @Override
+    public String getBestGuess() {
+        return storedGuess != null ? storedGuess : delegate.getBestGuess();
+    }
+
+    @Override
+    public String printState() {
+        return storedGuess != null ? "{from result store: " + storedGuess + "}" : delegate.printState();
+    }
+
+    @Override
+    public boolean isComplete() {
+        return storedGuess != null || delegate.isComplete();
+    }
+
+    @Override
+    public void cancel() {
+        delegate.cancel();
+    }
+}
@@ -1,101 +1,101 @@
 package wordle.guesser.utilities;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Preconditions;
 import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Sets;
 import org.apache.commons.io.FileUtils;
-import org.immutables.value.Value;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class Dictionary {
 
     private static final String DICTIONARY_LOCATION = "/usr/share/dict/american-english";
-    private static final String WORDLE_DICTIONARY_LOCATION = "/home/safreiberg/code/wordle-guesser/total-words.txt";
-    private static final ImmutableSet<Character> ALPHABET = ImmutableSet.of('A', 'B', 'C', 'D', 'E', 'F', 'G', 'H',
-            'I', 'J', 'K', 'L', 'M', 'N', 'O', 'P', 'Q', 'R', 'S', 'T', 'U', 'V', 'W', 'X', 'Y', 'Z');
+    // Built from total-words.txt by DictionaryCompiler at build time
+    private static final String COMPILED_WORDLE_RESOURCE = "/wordle12k.dict";
+    private static final int MAGIC = 0x57474443;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 * 4;
+    private static final long[] NO_WORDS = new long[0];
     private final Supplier<Map<Character, Integer>> letterCountCache =
             Suppliers.memoize(this::aggregateLetterCountInternal);
-    private final LoadingCache<KnownState, Set<String>> filteredDictCache = CacheBuilder.newBuilder()
+    private final Supplier<Integer> wordLength = Suppliers.memoize(this::wordLengthInternal);
+    // Roughly what one cached count costs on the heap: the key's objects and array, the boxed count and the entry
+    private static final int FILTER_CACHE_ENTRY_BYTES = 136;
+    private static final long FILTER_CACHE_BYTES = Long.getLong("wordle.filterCacheBytes", 64L << 20);
+    // One budget for the counts of every dictionary, since a run makes lots of them (one per filterToValid)
+    private static final Cache<CountKey, Integer> FILTERED_COUNT_CACHE = CacheBuilder.newBuilder()
             .recordStats()
-            .initialCapacity(10)
-            .maximumSize(250_000)
+            .maximumWeight(FILTER_CACHE_BYTES)
+            .weigher((CountKey key, Integer count) -> FILTER_CACHE_ENTRY_BYTES + 4 * key.state.positions())
             .concurrencyLevel(24)
-            .build(new CacheLoader<>() {
-                @Override
-                public Set<String> load(KnownState known) {
-                    return prefilterWordsIgnoringWrongSpot(known)
-                            .filter(known::satisfiesOnlyKnownLocs)
-                            .collect(Collectors.toSet());
-                }
-            });
-    private final ImmutableSet<String> words;
-    private final ImmutableMap<Character, ImmutableSet<String>> wordsWithCharacter;
-    private final ImmutableMap<Character, ImmutableSet<String>> wordsWithoutCharacter;
-    private final ImmutableMap<CharacterAndLocation, ImmutableSet<String>> wordsWithSpecificLocationChars;
+            .build();
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+    // Tells this dictionary's counts apart from others' in the shared cache
+    private final long id = NEXT_ID.getAndIncrement();
 
-    @Value.Immutable
-    interface CharacterAndLocation {
-        @Value.Parameter
-        Character getCharacter();
-        @Value.Parameter
-        Integer getLocation();
-    }
+    // Sub-dictionaries from filterToValid share the parent's strings and only pay for a filter pass up front.
+    // Everything else is worked out the first time it's asked for.
+    private final ImmutableList<String> wordList;
+    private final Supplier<ImmutableSet<String>> words;
+    private final Supplier<ImmutableMap<String, Integer>> ordinals;
+    private final int maxLength;
+    // Indexes are bitsets over the position of each word in wordList, NO_WORDS when no word matches and null until
+    // first used. Only A-Z is indexed.
+    private final AtomicReferenceArray<long[]> wordsWithLetter;
+    private final AtomicReferenceArray<long[]> wordsWithLetterAtLocation;
 
     private Dictionary(ImmutableSet<String> words) {
-        this.words = words;
-        Map<Character, ImmutableSet.Builder<String>> withCharacterMapBuilder = new HashMap<>();
-        Map<Character, ImmutableSet.Builder<String>> withoutCharacterMapBuilder = new HashMap<>();
-        Map<CharacterAndLocation, ImmutableSet.Builder<String>> specificLocBldr = new HashMap<>();
-        for (String word : words) {
-            Set<Character> seen = new HashSet<>();
-            for (int i = 0; i < word.length(); i++) {
-                Character c = word.charAt(i);
-                seen.add(c);
-                withCharacterMapBuilder.putIfAbsent(c, ImmutableSet.builder());
-                withCharacterMapBuilder.get(c).add(word);
-
-                CharacterAndLocation charLoc = ImmutableCharacterAndLocation.of(c, i);
-                specificLocBldr.putIfAbsent(charLoc, ImmutableSet.builder());
-                specificLocBldr.get(charLoc).add(word);
-            }
-            for (Character unseen : Sets.difference(ALPHABET, seen)) {
-                withoutCharacterMapBuilder.putIfAbsent(unseen, ImmutableSet.builder());
-                withoutCharacterMapBuilder.get(unseen).add(word);
-            }
-        }
-        ImmutableMap.Builder<Character, ImmutableSet<String>> withChar = ImmutableMap.builder();
-        for (Map.Entry<Character, ImmutableSet.Builder<String>> entry : withCharacterMapBuilder.entrySet()) {
-            withChar.put(entry.getKey(), entry.getValue().build());
-        }
-        wordsWithCharacter = withChar.build();
+        this(words.asList(), () -> words, words.stream().mapToInt(String::length).max().orElse(0));
+    }
 
-        ImmutableMap.Builder<Character, ImmutableSet<String>> withoutChar = ImmutableMap.builder();
-        for (Map.Entry<Character, ImmutableSet.Builder<String>> entry : withoutCharacterMapBuilder.entrySet()) {
-            withoutChar.put(entry.getKey(), entry.getValue().build());
-        }
-        wordsWithoutCharacter = withoutChar.build();
+    /**
+     * @param wordList distinct words
+     * @param maxLength at least the length of the longest word
+     */
+    private Dictionary(ImmutableList<String> wordList, int maxLength) {
+        this(wordList, Suppliers.memoize(() -> ImmutableSet.copyOf(wordList)), maxLength);
+    }
 
-        ImmutableMap.Builder<CharacterAndLocation, ImmutableSet<String>> charLoc = ImmutableMap.builder();
-        for (Map.Entry<CharacterAndLocation, ImmutableSet.Builder<String>> entry : specificLocBldr.entrySet()) {
-            charLoc.put(entry.getKey(), entry.getValue().build());
-        }
-        wordsWithSpecificLocationChars = charLoc.build();
+    private Dictionary(ImmutableList<String> wordList, Supplier<ImmutableSet<String>> words, int maxLength) {
+        this.wordList = wordList;
+        this.maxLength = maxLength;
+        this.words = words;
+        this.ordinals = Suppliers.memoize(() -> {
+            ImmutableMap.Builder<String, Integer> builder = ImmutableMap.builderWithExpectedSize(wordList.size());
+            for (int ordinal = 0; ordinal < wordList.size(); ordinal++) {
+                builder.put(wordList.get(ordinal), ordinal);
+            }
+            return builder.build();
+        });
+        this.wordsWithLetter = new AtomicReferenceArray<>(26);
+        this.wordsWithLetterAtLocation = new AtomicReferenceArray<>(maxLength * 26);
     }
 
     public static Dictionary ofWords(Collection<String> words) {
@@ -118,20 +118,171 @@ public class Dictionary {
         }
     }
 
+    /**
+     * The wordle word list from wordle.dictionary if set (a compiled .dict or a text file), otherwise the compiled
+     * copy on the classpath. Compiled dictionaries keep the order they were compiled in, text files are shuffled.
+     */
     public static Dictionary wordle12k() {
-        return parseFrom(WORDLE_DICTIONARY_LOCATION).uppercase();
+        String location = System.getProperty("wordle.dictionary");
+        if (location == null) {
+            return loadCompiledResource();
+        }
+        if (location.endsWith(".dict")) {
+            try {
+                return load(Paths.get(location));
+            } catch (IOException e) {
+                throw new RuntimeException("unable to load compiled dictionary from " + location, e);
+            }
+        }
+        return parseFrom(location).uppercase();
+    }
+
+    /**
+     * Maps the compiled copy when the classpath has it as a plain file, as it does when run from the build output.
+     * Out of a jar it has to be read onto the heap.
+     */
+    private static Dictionary loadCompiledResource() {
+        URL resource = Dictionary.class.getResource(COMPILED_WORDLE_RESOURCE);
+        if (resource == null) {
+            throw new IllegalStateException("no " + COMPILED_WORDLE_RESOURCE
+                    + " on the classpath, build it with compileDictionary or set wordle.dictionary");
+        }
+        try {
+            if (resource.getProtocol().equals("file")) {
+                return load(Paths.get(resource.toURI()));
+            }
+            try (InputStream compiled = resource.openStream()) {
+                return load(ByteBuffer.wrap(compiled.readAllBytes()));
+            }
+        } catch (IOException | URISyntaxException e) {
+            throw new RuntimeException("unable to load compiled dictionary from " + resource, e);
+        }
+    }
+
+    /**
+     * Opens a dictionary written by {@link #write(Path)}. The words and indexes are used as they are, nothing gets
+     * parsed or re-indexed.
+     */
+    public static Dictionary load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return load(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    private static Dictionary load(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("not a compiled dictionary, or an old version");
+        }
+        int size = buffer.getInt(8);
+        int maxLength = buffer.getInt(12);
+        if (size > 0 && maxLength != Words.LENGTH) {
+            throw new IOException("compiled dictionaries only hold five letter words, got length " + maxLength);
+        }
+        ImmutableList.Builder<String> words = ImmutableList.builderWithExpectedSize(size);
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            words.add(Words.unpack(buffer.getInt(HEADER_BYTES + 4 * ordinal)));
+        }
+        Dictionary dictionary = new Dictionary(words.build(), maxLength);
+        int indexCount = 26 + maxLength * 26;
+        int present = HEADER_BYTES + 4 * size;
+        LongBuffer bitsets = buffer.duplicate().position(present + indexCount).slice().asLongBuffer();
+        for (int index = 0; index < indexCount; index++) {
+            long[] bits = NO_WORDS;
+            if (buffer.get(present + index) != 0) {
+                bits = Bitsets.empty(size);
+                bitsets.get(bits);
+            }
+            if (index < 26) {
+                dictionary.wordsWithLetter.set(index, bits);
+            } else {
+                dictionary.wordsWithLetterAtLocation.set(index - 26, bits);
+            }
+        }
+        return dictionary;
+    }
+
+    /**
+     * Writes the words, in their current order, with every index already built. Only five letter A-Z words can be
+     * compiled.
+     */
+    public void write(Path file) throws IOException {
+        for (String word : wordList) {
+            if (!Words.isPackable(word)) {
+                throw new IllegalArgumentException("only five letter A-Z words can be compiled: " + word);
+            }
+        }
+        int size = wordList.size();
+        int indexCount = 26 + maxLength * 26;
+        List<long[]> indexes = new ArrayList<>(indexCount);
+        for (int letter = 0; letter < 26; letter++) {
+            indexes.add(withLetter(letter));
+        }
+        for (int location = 0; location < maxLength; location++) {
+            for (int letter = 0; letter < 26; letter++) {
+                indexes.add(withLetterAt(location, letter));
+            }
+        }
+        long bitsetBytes = indexes.stream().filter(Objects::nonNull).count() * 8L * Bitsets.empty(size).length;
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(HEADER_BYTES + 4L * size + indexCount + bitsetBytes));
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(maxLength);
+        for (String word : wordList) {
+            buffer.putInt(Words.pack(word));
+        }
+        for (long[] index : indexes) {
+            buffer.put((byte) (index == null ? 0 : 1));
+        }
+        for (long[] index : indexes) {
+            if (index != null) {
+                for (long bits : index) {
+                    buffer.putLong(bits);
+                }
+            }
+        }
+        buffer.flip();
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
     }
 
     public static Dictionary linuxDictionary() {
-        return parseFromDefaultLocation().filterTo(new WordleFilter()).uppercase();
+        return linuxDictionary(Words.LENGTH);
+    }
+
+    public static Dictionary linuxDictionary(int length) {
+        return parseFromDefaultLocation().filterTo(new WordleFilter(length)).uppercase();
+    }
+
+    /**
+     * The words with length letters, for playing a variant with longer or shorter words.
+     */
+    public Dictionary ofLength(int length) {
+        return filterTo(word -> word.length() == length);
     }
 
+    /**
+     * The words matching predicate, in the same order. Like {@link #filterToValid} this is a view that only costs
+     * the pass over the words.
+     */
     public Dictionary filterTo(Predicate<String> predicate) {
-        return new Dictionary(ImmutableSet.copyOf(words.stream().filter(predicate).collect(Collectors.toSet())));
+        return new Dictionary(wordList.stream().filter(predicate).collect(ImmutableList.toImmutableList()), maxLength);
+    }
+
+    /**
+     * The words satisfying known, including any it guessed, by the same index intersection as
+     * {@link #filterToValid}.
+     */
+    public Dictionary filterTo(PackedState known) {
+        return new Dictionary(Bitsets.stream(filterIgnoringGuessed(known))
+                .mapToObj(wordList::get)
+                .collect(ImmutableList.toImmutableList()), maxLength);
     }
 
     public Dictionary uppercase() {
-        return new Dictionary(words.stream()
+        return new Dictionary(wordList.stream()
                 .map(String::toUpperCase)
                 .map(String::intern)
                 .collect(ImmutableSet.toImmutableSet()));
@@ -139,89 +290,211 @@ public class Dictionary {
 
     @VisibleForTesting
     public Stream<String> prefilterWordsIgnoringWrongSpot(KnownState known) {
-        Set<String> filtered = words;
-        Character[] requiredLocations = known.requiredLocations();
-        Set<Character> alreadyFiltered = new HashSet<>();
-        for (int i = 0; i < requiredLocations.length; i++) {
-            Character character = requiredLocations[i];
-            if (character == null) {
+        return Bitsets.stream(filterIgnoringGuessed(known.toPacked(false))).mapToObj(wordList::get);
+    }
+
+    /**
+     * Words satisfying the state, as a bitset over word ordinals. A word parallel AND / ANDNOT of the indexes,
+     * so the cost is mostly in the number of constraints.
+     */
+    private long[] filterIgnoringGuessed(PackedState known) {
+        long[] filtered = Bitsets.allSet(wordList.size());
+        int pinned = 0;
+        for (int i = 0; i < known.positions(); i++) {
+            int allowed = known.allowed(i);
+            if (Integer.bitCount(allowed) == 1) {
+                long[] withLetter = withLetterAt(i, Integer.numberOfTrailingZeros(allowed));
+                if (withLetter == null) {
+                    return Bitsets.empty(wordList.size());
+                }
+                Bitsets.and(filtered, withLetter);
+                pinned |= allowed;
                 continue;
             }
-            Set<String> withLoc = Preconditions.checkNotNull(wordsWithSpecificLocationChars.get(
-                    ImmutableCharacterAndLocation.of(character, i)));
-            alreadyFiltered.add(character);
-            if (filtered == words) {
-                filtered = withLoc;
-            } else {
-                filtered = Sets.intersection(filtered, withLoc);
+            // Disallowed letters are dropped from every word below, no need to do it per location
+            int excluded = ~allowed & ~known.disallowed() & PackedState.ALL_LETTERS;
+            for (; excluded != 0; excluded &= excluded - 1) {
+                long[] withLetter = withLetterAt(i, Integer.numberOfTrailingZeros(excluded));
+                if (withLetter != null) {
+                    Bitsets.andNot(filtered, withLetter);
+                }
             }
         }
-        Set<Character> requiredChars = known.requiredUnknown();
-        for (Character required : requiredChars) {
-            if (alreadyFiltered.contains(required)) {
-                continue;
+        for (int required = known.required() & ~pinned; required != 0; required &= required - 1) {
+            long[] withLetter = withLetter(Integer.numberOfTrailingZeros(required));
+            if (withLetter == null) {
+                return Bitsets.empty(wordList.size());
             }
-            ImmutableSet<String> withReqChar = Preconditions.checkNotNull(wordsWithCharacter.get(required));
-            if (filtered == words) {
-                filtered = withReqChar;
-            } else {
-                filtered = Sets.intersection(filtered, withReqChar);
+            Bitsets.and(filtered, withLetter);
+        }
+        for (int disallowed = known.disallowed(); disallowed != 0; disallowed &= disallowed - 1) {
+            long[] withLetter = withLetter(Integer.numberOfTrailingZeros(disallowed));
+            if (withLetter != null) {
+                Bitsets.andNot(filtered, withLetter);
             }
         }
-        Set<Character> disallowedChars = known.disallowed();
-        for (Character disallowed : disallowedChars) {
-            ImmutableSet<String> missingChar = wordsWithoutCharacter.get(disallowed);
-            if (missingChar != null) {
-                if (filtered == words) {
-                    filtered = missingChar;
-                } else {
-                    filtered = Sets.intersection(filtered, missingChar);
+        return filtered;
+    }
+
+    @Nullable
+    private long[] withLetter(int letter) {
+        return index(wordsWithLetter, letter, -1, letter);
+    }
+
+    @Nullable
+    private long[] withLetterAt(int location, int letter) {
+        int index = location * 26 + letter;
+        return index < wordsWithLetterAtLocation.length() ? index(wordsWithLetterAtLocation, index, location, letter) : null;
+    }
+
+    /**
+     * Builds the index on first use. Threads racing on the same index both build it, which is harmless.
+     *
+     * @param location position the letter has to be at, or -1 for anywhere
+     */
+    @Nullable
+    private long[] index(AtomicReferenceArray<long[]> indexes, int index, int location, int letter) {
+        long[] bits = indexes.get(index);
+        if (bits == null) {
+            char c = (char) ('A' + letter);
+            for (int ordinal = 0; ordinal < wordList.size(); ordinal++) {
+                String word = wordList.get(ordinal);
+                if (location < 0 ? word.indexOf(c) >= 0 : location < word.length() && word.charAt(location) == c) {
+                    if (bits == null) {
+                        bits = Bitsets.empty(wordList.size());
+                    }
+                    Bitsets.set(bits, ordinal);
                 }
-            } else {
-                filtered = Collections.emptySet();
             }
+            if (bits == null) {
+                bits = NO_WORDS;
+            }
+            indexes.compareAndSet(index, null, bits);
         }
-        return filtered.stream();
+        return bits == NO_WORDS ? null : bits;
     }
 
-    private static final ConcurrentMap<KnownState, Dictionary> CACHE = new ConcurrentHashMap<>();
+    // Per dictionary, the same state filters each one down to different words
+    private final ConcurrentMap<KnownState, Dictionary> stateCache = new ConcurrentHashMap<>();
+    private volatile boolean stateCacheTracked;
 
     public Dictionary filterToValid(KnownState known) {
-        if (known.guessed().isEmpty()) {
-            Dictionary dictionary = CACHE.get(known);
-            if (dictionary == null) {
-                Dictionary computed = new Dictionary(prefilterWordsIgnoringWrongSpot(known)
-                        .filter(known::satisfies)
-                        .collect(ImmutableSet.toImmutableSet()));
-                CACHE.put(known.deepCopy(), computed);
-                return computed;
+        long start = SolverMetrics.FILTER_TO_VALID.start();
+        try {
+            if (known.guessed().isEmpty()) {
+                Dictionary dictionary = stateCache.get(known);
+                if (dictionary == null) {
+                    SolverMetrics.STATE_CACHE_MISSES.increment();
+                    Dictionary computed = filterToValidInternal(known);
+                    stateCache.putIfAbsent(known.deepCopy(), computed);
+                    if (!stateCacheTracked) {
+                        // Only dictionaries that cache something are tracked, most never do
+                        stateCacheTracked = true;
+                        SolverMetrics.trackStateCache(stateCache);
+                    }
+                    return computed;
+                } else {
+                    SolverMetrics.STATE_CACHE_HITS.increment();
+                    return dictionary;
+                }
             } else {
-                return dictionary;
+                return filterToValidInternal(known);
             }
-        } else {
-            return new Dictionary(prefilterWordsIgnoringWrongSpot(known)
-                    .filter(known::satisfies)
-                    .collect(ImmutableSet.toImmutableSet()));
+        } finally {
+            SolverMetrics.FILTER_TO_VALID.stop(start);
         }
     }
 
+    private Dictionary filterToValidInternal(KnownState known) {
+        long[] filtered = filterIgnoringGuessed(known.toPacked());
+        for (String guess : known.guessed()) {
+            Integer ordinal = ordinals.get().get(guess);
+            if (ordinal != null) {
+                Bitsets.clear(filtered, ordinal);
+            }
+        }
+        return new Dictionary(Bitsets.stream(filtered)
+                .mapToObj(wordList::get)
+                .collect(ImmutableList.toImmutableList()), maxLength);
+    }
+
+    /**
+     * Number of words satisfying the state, other than words it already guessed.
+     */
     public int sizeAfterFiltering(KnownState known) {
-        Set<String> unchecked = filteredDictCache.getUnchecked(known);
-        int remaining = 0;
+        long start = SolverMetrics.SIZE_AFTER_FILTERING.start();
+        PackedState packed = known.toPacked();
+        int remaining = filteredCount(packed);
         for (String guess : known.guessed()) {
-            if (unchecked.contains(guess)) {
-                remaining += 1;
+            if (ordinals.get().containsKey(guess) && packed.satisfies(guess)) {
+                remaining -= 1;
+            }
+        }
+        SolverMetrics.SIZE_AFTER_FILTERING.stop(start);
+        return remaining;
+    }
+
+    /**
+     * Same as {@link #sizeAfterFiltering(KnownState)} for a state whose only guessed word (that is still in this
+     * dictionary) is guess.
+     */
+    public int sizeAfterFiltering(PackedState known, String guess) {
+        long start = SolverMetrics.SIZE_AFTER_FILTERING.start();
+        int remaining = filteredCount(known);
+        if (ordinals.get().containsKey(guess) && known.satisfies(guess)) {
+            remaining -= 1;
+        }
+        SolverMetrics.SIZE_AFTER_FILTERING.stop(start);
+        return remaining;
+    }
+
+    private int filteredCount(PackedState known) {
+        try {
+            return FILTERED_COUNT_CACHE.get(new CountKey(id, known),
+                    () -> Bitsets.cardinality(filterIgnoringGuessed(known)));
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Hits, misses and evictions of the counts behind {@link #sizeAfterFiltering}, for every dictionary. The cache
+     * holds about wordle.filterCacheBytes (default 64MB) worth of counts in all.
+     */
+    public static CacheStats filterCacheStats() {
+        return FILTERED_COUNT_CACHE.stats();
+    }
+
+    static long filterCacheSize() {
+        return FILTERED_COUNT_CACHE.size();
+    }
+
+    /**
+     * The length of every word, or -1 if they don't all have the same length or there are none. Games, and the
+     * {@link KnownState} for them, are sized by it.
+     */
+    public int wordLength() {
+        return wordLength.get();
+    }
+
+    private int wordLengthInternal() {
+        int length = -1;
+        for (String word : wordList) {
+            if (length == -1) {
+                length = word.length();
+            } else if (word.length() != length) {
+                return -1;
             }
         }
-        return unchecked.size() - remaining;
+        return length;
     }
 
     public int size() {
-        return words.size();
+        return wordList.size();
     }
 
     public boolean contains(String word) {
-        return words.contains(word);
+        return ordinals.get().containsKey(word);
     }
 
     public Map<Character, Integer> aggregateLetterCount() {
@@ -230,7 +503,7 @@ public class Dictionary {
 
     private Map<Character, Integer> aggregateLetterCountInternal() {
         Map<Character, Integer> map = new HashMap<>();
-        for (String word : words) {
+        for (String word : wordList) {
             for (char c : word.toCharArray()) {
                 map.putIfAbsent(c, 0);
                 map.put(c, map.get(c) + 1);
@@ -240,7 +513,30 @@ public class Dictionary {
     }
 
     public Set<String> getWords() {
-        return this.words;
+        return this.words.get();
+    }
+
+    private static final class CountKey {
+        private final long dictionary;
+        private final PackedState state;
+
+        private CountKey(long dictionary, PackedState state) {
+            this.dictionary = dictionary;
+            this.state = state;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CountKey)) return false;
+            CountKey that = (CountKey) o;
+            return dictionary == that.dictionary && state.equals(that.state);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(dictionary) * 31 + state.hashCode();
+        }
     }
 
     @Override
@@ -248,18 +544,18 @@ public class Dictionary {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Dictionary that = (Dictionary) o;
-        return Objects.equals(words, that.words);
+        return Objects.equals(getWords(), that.getWords());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(words);
+        return Objects.hash(getWords());
     }
 
     @Override
     public String toString() {
         return "Dictionary{" +
-                "words=" + words +
+                "words=" + getWords() +
                 '}';
     }
 }
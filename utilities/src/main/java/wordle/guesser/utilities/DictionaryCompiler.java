@@ -0,0 +1,39 @@
+package wordle.guesser.utilities;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Compiles a word list, one word per line, into the binary form read by {@link Dictionary#load}.
+ * Run by the compileDictionary build task: {@code DictionaryCompiler <word list> <output>}.
+ */
+public class DictionaryCompiler {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("usage: DictionaryCompiler <word list> <output>");
+        }
+        Path output = Paths.get(args[1]);
+        List<String> words = Files.readAllLines(Paths.get(args[0]), StandardCharsets.UTF_8).stream()
+                .map(String::trim)
+                .filter(word -> !word.isEmpty())
+                .map(word -> word.toUpperCase(Locale.ROOT))
+                .sorted()
+                .distinct()
+                .collect(Collectors.toList());
+        // Fail the build rather than leave words out
+        for (String word : words) {
+            if (!Words.isPackable(word)) {
+                throw new IllegalArgumentException("only five letter A-Z words can be compiled: " + word);
+            }
+        }
+        Dictionary.ofWords(words).write(output);
+        System.out.println("Compiled " + words.size() + " words to " + output);
+    }
+}
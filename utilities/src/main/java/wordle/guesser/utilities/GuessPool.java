@@ -0,0 +1,53 @@
+package wordle.guesser.utilities;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Which guesses {@link BruteGuesser} scores each turn, most promising first.
+ */
+@FunctionalInterface
+public interface GuessPool {
+
+    /**
+     * @param state what's known so far
+     * @param candidates the answers still possible
+     */
+    List<String> guesses(KnownState state, List<String> candidates);
+
+    /**
+     * Every word, ordered by how evenly its letters split the candidates.
+     */
+    static GuessPool all(Collection<String> words) {
+        ImmutableList<String> pool = ImmutableList.copyOf(words);
+        return (state, candidates) -> BruteGuesser.sortedDescending(pool, BruteGuesser.letterCoverage(candidates));
+    }
+
+    /**
+     * The size best words by the same letter coverage as {@link #all}, plus every candidate since one of them might
+     * be the answer. Cheap to rank, so the exact scoring only has to look at a fraction of the words.
+     */
+    static GuessPool shortlist(Collection<String> words, int size) {
+        GuessPool all = all(words);
+        return (state, candidates) -> {
+            List<String> ranked = all.guesses(state, candidates);
+            Set<String> shortlist = new LinkedHashSet<>(ranked.subList(0, Math.min(size, ranked.size())));
+            shortlist.addAll(candidates);
+            return ImmutableList.copyOf(shortlist);
+        };
+    }
+
+    /**
+     * Only the words hard mode allows, ordered like {@link #all}. They're looked up in the dictionary's indexes each
+     * turn. Grey letters stay playable, so the pool only shrinks as greens and yellows turn up.
+     */
+    static GuessPool hardMode(Dictionary words) {
+        return (state, candidates) -> BruteGuesser.sortedDescending(
+                ImmutableList.copyOf(words.filterTo(state.hardModeRules()).getWords()),
+                BruteGuesser.letterCoverage(candidates));
+    }
+}
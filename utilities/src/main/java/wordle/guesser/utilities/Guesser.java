@@ -12,4 +12,17 @@ public interface Guesser {
     String getBestGuess();
 
     String printState();
+
+    /**
+     * Whether the last {@link #process} considered everything it normally would, rather than stopping early.
+     */
+    default boolean isComplete() {
+        return true;
+    }
+
+    /**
+     * Asks a {@link #process} running on another thread to wrap up early. Guessers that can't stop early ignore it.
+     */
+    default void cancel() {
+    }
 }
@@ -0,0 +1,111 @@
+package wordle.guesser.utilities;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link BruteGuesser} scoring only a shortlist: the best few words by the cheap letter coverage ranking plus the
+ * remaining candidates. Trades some accuracy for speed, and a {@link Misses} can measure how much by also running
+ * the exhaustive search and counting the turns where the shortlist didn't contain a best guess.
+ */
+public class HybridGuesser implements Guesser {
+
+    private final BruteGuesser shortlisted;
+    @Nullable
+    private final BruteGuesser exhaustive;
+    @Nullable
+    private final Misses misses;
+
+    public HybridGuesser(int shortlistSize, Dictionary rawDictionary) {
+        this(shortlistSize, rawDictionary, null);
+    }
+
+    /**
+     * @param misses where to count shortlist misses, or null to skip the exhaustive check
+     */
+    public HybridGuesser(int shortlistSize, Dictionary rawDictionary, @Nullable Misses misses) {
+        this(shortlistSize, rawDictionary, ScoringObjective.EXPECTED_SIZE, misses);
+    }
+
+    public HybridGuesser(int shortlistSize, Dictionary rawDictionary, ScoringObjective objective,
+                         @Nullable Misses misses) {
+        this.shortlisted = new BruteGuesser(5, rawDictionary, ScoringEngine.shared(), objective,
+                GuessPool.shortlist(rawDictionary.getWords(), shortlistSize));
+        this.exhaustive = misses == null ? null : new BruteGuesser(5, rawDictionary, objective);
+        this.misses = misses;
+    }
+
+    @Override
+    public void determineFirstWords(Dictionary dictionary) {
+        shortlisted.determineFirstWords(dictionary);
+    }
+
+    @Override
+    public void process(Dictionary dictionary, KnownState state) {
+        shortlisted.process(dictionary, state);
+        if (exhaustive != null && misses != null && !state.isEmpty()) {
+            exhaustive.process(dictionary, state);
+            misses.record(shortlisted.bestScore(), exhaustive.bestScore());
+        }
+    }
+
+    @Nullable
+    @Override
+    public String getBestGuess() {
+        return shortlisted.getBestGuess();
+    }
+
+    @Override
+    public String printState() {
+        return shortlisted.printState();
+    }
+
+    @Override
+    public boolean isComplete() {
+        return shortlisted.isComplete();
+    }
+
+    @Override
+    public void cancel() {
+        shortlisted.cancel();
+        if (exhaustive != null) {
+            exhaustive.cancel();
+        }
+    }
+
+    /**
+     * How often the shortlist's best guess scored worse than the best guess overall. Can be shared between guessers.
+     */
+    public static class Misses {
+        private final LongAdder turns = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder excess = new LongAdder();
+
+        private void record(int shortlistScore, int bestScore) {
+            turns.increment();
+            if (shortlistScore > bestScore) {
+                misses.increment();
+                excess.add(shortlistScore - bestScore);
+            }
+        }
+
+        public long turns() {
+            return turns.sum();
+        }
+
+        public long misses() {
+            return misses.sum();
+        }
+
+        public double missRate() {
+            long turns = turns();
+            return turns == 0 ? 0 : (double) misses() / turns;
+        }
+
+        @Override
+        public String toString() {
+            return misses() + " misses in " + turns() + " turns (" + String.format("%.2f%%", 100 * missRate())
+                    + "), total score lost " + excess.sum();
+        }
+    }
+}
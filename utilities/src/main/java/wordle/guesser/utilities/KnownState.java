@@ -8,13 +8,35 @@ public class KnownState {
     private final Character[] requiredLocations;
     private final Set<Character> notInWord;
     private final Set<String> alreadyGuessedWords = new HashSet<>();
+    // In the order they were made, for replaying a game. Not part of equality, same as alreadyGuessedWords
+    private final List<String> guessHistory = new ArrayList<>();
+    private final List<Integer> patternHistory = new ArrayList<>();
 
     public KnownState() {
+        this(Words.LENGTH);
+    }
+
+    /**
+     * @param length letters per word, see {@link Dictionary#wordLength()}
+     */
+    public KnownState(int length) {
         this.requiredLetterWrongSpot = new HashMap<>(10);
-        this.requiredLocations = new Character[5];
+        this.requiredLocations = new Character[length];
         this.notInWord = new HashSet<>(10);
     }
 
+    /**
+     * Nothing known yet about an answer from the dictionary, sized for its words.
+     */
+    public static KnownState forDictionary(Dictionary dictionary) {
+        int length = dictionary.wordLength();
+        return new KnownState(length > 0 ? length : Words.LENGTH);
+    }
+
+    public int length() {
+        return requiredLocations.length;
+    }
+
     public boolean isEmpty() {
         for (Character character : requiredLocations) {
             if (character != null) {
@@ -27,10 +49,12 @@ public class KnownState {
     }
 
     public KnownState deepCopy() {
-        KnownState copy = new KnownState();
+        KnownState copy = new KnownState(requiredLocations.length);
         copy.notInWord.addAll(notInWord);
         System.arraycopy(requiredLocations, 0, copy.requiredLocations, 0, requiredLocations.length);
         copy.alreadyGuessedWords.addAll(alreadyGuessedWords);
+        copy.guessHistory.addAll(guessHistory);
+        copy.patternHistory.addAll(patternHistory);
         for (Map.Entry<Character, Set<Integer>> entry : requiredLetterWrongSpot.entrySet()) {
             copy.requiredLetterWrongSpot.put(entry.getKey(), new HashSet<>(entry.getValue()));
         }
@@ -53,6 +77,73 @@ public class KnownState {
         return alreadyGuessedWords;
     }
 
+    public List<String> guessHistory() {
+        return Collections.unmodifiableList(guessHistory);
+    }
+
+    /**
+     * The {@link #patternCode} each guess in {@link #guessHistory()} got.
+     */
+    public List<Integer> patternHistory() {
+        return Collections.unmodifiableList(patternHistory);
+    }
+
+    /**
+     * Everything known except the guessed words, which {@link PackedState} doesn't track.
+     */
+    public PackedState toPacked() {
+        return toPacked(true);
+    }
+
+    /**
+     * What hard mode holds every later guess to: greens stay where they were found and yellows get used somewhere.
+     * Grey letters and the spots a yellow was already tried in are still fair game.
+     */
+    public PackedState hardModeRules() {
+        // Built from the greens and yellows alone, toPacked has already taken the grey letters out of every position
+        int[] allowed = new int[requiredLocations.length];
+        Arrays.fill(allowed, PackedState.ALL_LETTERS);
+        int required = 0;
+        for (int i = 0; i < requiredLocations.length; i++) {
+            if (requiredLocations[i] != null) {
+                int bit = PackedState.letterBit(requiredLocations[i]);
+                allowed[i] = bit;
+                required |= bit;
+            }
+        }
+        for (Character character : requiredLetterWrongSpot.keySet()) {
+            required |= PackedState.letterBit(character);
+        }
+        return PackedState.of(allowed, required, 0);
+    }
+
+    PackedState toPacked(boolean withWrongSpots) {
+        int[] allowed = new int[requiredLocations.length];
+        Arrays.fill(allowed, PackedState.ALL_LETTERS);
+        int required = 0;
+        for (int i = 0; i < requiredLocations.length; i++) {
+            if (requiredLocations[i] != null) {
+                int bit = PackedState.letterBit(requiredLocations[i]);
+                allowed[i] &= bit;
+                required |= bit;
+            }
+        }
+        for (Map.Entry<Character, Set<Integer>> entry : requiredLetterWrongSpot.entrySet()) {
+            int bit = PackedState.letterBit(entry.getKey());
+            required |= bit;
+            if (withWrongSpots) {
+                for (Integer location : entry.getValue()) {
+                    allowed[location] &= ~bit;
+                }
+            }
+        }
+        int disallowed = 0;
+        for (Character character : notInWord) {
+            disallowed |= PackedState.letterBit(character);
+        }
+        return PackedState.of(allowed, required, disallowed);
+    }
+
     public enum Outcome {
         // grey
         NOT_IN_WORD,
@@ -73,15 +164,35 @@ public class KnownState {
                     this.requiredLocations[i] = character;
                     break;
                 case WRONG_SPOT:
-                    this.requiredLetterWrongSpot.putIfAbsent(character, new HashSet<>(10));
-                    this.requiredLetterWrongSpot.get(character).add(i);
+                    addWrongSpot(character, i);
                     break;
                 case NOT_IN_WORD:
-                    this.notInWord.add(character);
+                    if (presentElsewhere(guess, outcomes, character)) {
+                        // A repeated letter goes grey once the answer has no copies left, it's still in the word
+                        addWrongSpot(character, i);
+                    } else {
+                        this.notInWord.add(character);
+                    }
                     break;
             }
         }
         this.alreadyGuessedWords.add(guess);
+        this.guessHistory.add(guess);
+        this.patternHistory.add(patternCode(outcomes));
+    }
+
+    private void addWrongSpot(char character, int location) {
+        this.requiredLetterWrongSpot.putIfAbsent(character, new HashSet<>(10));
+        this.requiredLetterWrongSpot.get(character).add(location);
+    }
+
+    private static boolean presentElsewhere(String guess, Outcome[] outcomes, char character) {
+        for (int i = 0; i < guess.length(); i++) {
+            if (guess.charAt(i) == character && outcomes[i] != Outcome.NOT_IN_WORD) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public boolean satisfies(String word) {
@@ -131,34 +242,80 @@ public class KnownState {
         return true;
     }
 
+    /**
+     * Outcomes for the UI and tests, scoring uses {@link Words#patternCode} instead. Follows Wordle's rules for
+     * repeated letters: greens are matched first and a letter is only yellow while the answer has a copy left.
+     */
     public static Outcome[] getOutcomes(String answer, String guess) {
+        long start = SolverMetrics.GET_OUTCOMES.start();
+        try {
+            return getOutcomesInternal(answer, guess);
+        } finally {
+            SolverMetrics.GET_OUTCOMES.stop(start);
+        }
+    }
+
+    private static Outcome[] getOutcomesInternal(String answer, String guess) {
         if (answer.length() != guess.length() || answer.length() == 0) {
             throw new IllegalArgumentException("mean");
         }
+        if (Words.isPackable(answer) && Words.isPackable(guess)) {
+            return decodePattern(Words.patternCode(Words.pack(guess), Words.pack(answer)), answer.length());
+        }
+        if (Words.isPackableLong(answer) && Words.isPackableLong(guess)) {
+            return decodePattern(Words.patternCode(Words.packLong(guess), Words.packLong(answer), answer.length()),
+                    answer.length());
+        }
         Outcome[] outcomes = new Outcome[answer.length()];
         char[] answerChars = answer.toCharArray();
         char[] guessChars = guess.toCharArray();
+        boolean[] used = new boolean[answerChars.length];
         for (int i = 0; i < guessChars.length; i++) {
             if (answerChars[i] == guessChars[i]) {
                 outcomes[i] = Outcome.CORRECT;
-            } else {
-                boolean seen = false;
-                for (char answerChar : answerChars) {
-                    if (answerChar == guessChars[i]) {
-                        seen = true;
-                        break;
-                    }
-                }
-                if (seen) {
+                used[i] = true;
+            }
+        }
+        for (int i = 0; i < guessChars.length; i++) {
+            if (outcomes[i] != null) {
+                continue;
+            }
+            outcomes[i] = Outcome.NOT_IN_WORD;
+            for (int j = 0; j < answerChars.length; j++) {
+                if (!used[j] && answerChars[j] == guessChars[i]) {
                     outcomes[i] = Outcome.WRONG_SPOT;
-                } else {
-                    outcomes[i] = Outcome.NOT_IN_WORD;
+                    used[j] = true;
+                    break;
                 }
             }
         }
         return outcomes;
     }
 
+    /**
+     * Encodes outcomes as a base-3 number, position 0 being the least significant digit.
+     * All-green for a five letter word is 242, and for any length it's the last of {@link Words#patternCount}.
+     */
+    public static int patternCode(Outcome... outcomes) {
+        int code = 0;
+        for (int i = outcomes.length - 1; i >= 0; i--) {
+            code = code * 3 + outcomes[i].ordinal();
+        }
+        return code;
+    }
+
+    public static Outcome[] decodePattern(int code, int length) {
+        Outcome[] outcomes = new Outcome[length];
+        for (int i = 0; i < length; i++) {
+            outcomes[i] = OUTCOMES[code % 3];
+            code /= 3;
+        }
+        return outcomes;
+    }
+
+    private static final Outcome[] OUTCOMES = Outcome.values();
+    public static final int PATTERN_COUNT = 243;
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
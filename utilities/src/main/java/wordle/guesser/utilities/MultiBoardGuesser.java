@@ -0,0 +1,212 @@
+package wordle.guesser.utilities;
+
+import com.google.common.base.Suppliers;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.Supplier;
+
+/**
+ * Plays several boards at once with one guess a turn, like Quordle (4 boards) or Octordle (8). Each board keeps its
+ * own {@link KnownState}, and a guess scores the sum of its objective over the boards still unsolved, so with
+ * {@link ScoringObjective#EXPECTED_SIZE} it's the total number of candidates expected to be left.
+ * <p>
+ * Every guess is scored against all boards in one go: its matrix row and equivalence class are worked out once
+ * rather than once per board, and the scoring pool splits the guesses between threads.
+ * <p>
+ * A board down to one candidate scores about the same whatever the guess, so as a heuristic its answer is played as
+ * soon as it's known, picking the best scoring of them when several boards are there. Feedback comes off the
+ * {@link PatternMatrix}, so the words have to be five letters.
+ */
+public class MultiBoardGuesser {
+
+    private static final ThreadLocal<int[]> HISTOGRAM = ThreadLocal.withInitial(() -> new int[KnownState.PATTERN_COUNT]);
+
+    private final int guessesToKeep;
+    private final Dictionary rawDictionary;
+    private final ScoringEngine engine;
+    private final ScoringObjective objective;
+    private final Supplier<PatternMatrix> patternMatrix;
+    private final KnownState[] states;
+    private final Dictionary[] candidates;
+    private final boolean[] solved;
+    private TopGuesses scoreToGuesses;
+    private int turns;
+
+    public MultiBoardGuesser(int guessesToKeep, Dictionary rawDictionary, int boards) {
+        this(guessesToKeep, rawDictionary, boards, ScoringEngine.shared(), ScoringObjective.EXPECTED_SIZE);
+    }
+
+    public MultiBoardGuesser(int guessesToKeep, Dictionary rawDictionary, int boards, ScoringEngine engine,
+                             ScoringObjective objective) {
+        if (rawDictionary.wordLength() != Words.LENGTH) {
+            throw new IllegalArgumentException("boards are scored off the pattern matrix, which needs five letter words");
+        }
+        this.guessesToKeep = guessesToKeep;
+        this.rawDictionary = rawDictionary;
+        this.engine = engine;
+        this.objective = objective;
+        this.patternMatrix = Suppliers.memoize(() -> PatternMatrix.forDictionary(rawDictionary));
+        this.states = new KnownState[boards];
+        this.candidates = new Dictionary[boards];
+        this.solved = new boolean[boards];
+        for (int board = 0; board < boards; board++) {
+            states[board] = KnownState.forDictionary(rawDictionary);
+            candidates[board] = rawDictionary;
+        }
+        this.scoreToGuesses = new TopGuesses(guessesToKeep);
+    }
+
+    /**
+     * Scores every word against the unsolved boards.
+     *
+     * @return the best guess, or null once every board is solved
+     */
+    @Nullable
+    public String nextGuess() {
+        this.scoreToGuesses = new TopGuesses(guessesToKeep);
+        List<int[]> boardOrdinals = new ArrayList<>();
+        List<String> allCandidates = new ArrayList<>();
+        Set<String> knownAnswers = new LinkedHashSet<>();
+        PatternMatrix matrix = patternMatrix.get();
+        for (int board = 0; board < states.length; board++) {
+            if (solved[board]) {
+                continue;
+            }
+            if (states[board].isEmpty() && rawDictionary.contains(BruteGuesser.BEST_FIRST_GUESS)) {
+                // Nothing known on some board, every word is in play there and the usual opener is as good as any
+                return BruteGuesser.BEST_FIRST_GUESS;
+            }
+            Set<String> words = candidates[board].getWords();
+            boardOrdinals.add(words.stream().mapToInt(matrix::ordinal).toArray());
+            allCandidates.addAll(words);
+            if (words.size() == 1) {
+                knownAnswers.addAll(words);
+            }
+        }
+        if (boardOrdinals.isEmpty()) {
+            return null;
+        }
+        // Biggest boards first, they're the likeliest to take a guess past the cutoff
+        boardOrdinals.sort((a, b) -> Integer.compare(b.length, a.length));
+        int[][] ordinals = boardOrdinals.toArray(new int[0][]);
+
+        // A board's known answer has to be played at some point, and played now the next guess can be picked knowing
+        // what it showed on the other boards. That's a heuristic, a word that splits the other boards better isn't
+        // weighed against it, so when there are known answers only those are scored
+        Collection<String> pool = knownAnswers.isEmpty() ? rawDictionary.getWords() : knownAnswers;
+        Map<String, List<String>> equivalentGuesses = BruteGuesser.equivalenceClasses(
+                BruteGuesser.sortedDescending(pool, BruteGuesser.letterCoverage(allCandidates)), allCandidates);
+        List<String> guesses = new ArrayList<>(equivalentGuesses.keySet());
+        TopGuesses best = engine.score(guesses, (guess, cutoff) -> score(matrix, ordinals, guess, cutoff),
+                guessesToKeep);
+        best.asMap().forEach((score, representatives) -> {
+            for (String representative : representatives) {
+                for (String guess : equivalentGuesses.get(representative)) {
+                    scoreToGuesses.add(score, guess);
+                }
+            }
+        });
+        return bestOf(scoreToGuesses, allCandidates);
+    }
+
+    private int score(PatternMatrix matrix, int[][] boardOrdinals, String guess, int cutoff) {
+        int guessOrdinal = matrix.ordinal(guess);
+        int[] histogram = HISTOGRAM.get();
+        boolean checkCutoff = objective.boundable() && cutoff < ScoringEngine.ABANDONED - 1;
+        long total = 0;
+        for (int[] ordinals : boardOrdinals) {
+            Arrays.fill(histogram, 0);
+            for (int ordinal : ordinals) {
+                histogram[matrix.pattern(guessOrdinal, ordinal)]++;
+            }
+            total += objective.score(histogram, ordinals.length);
+            // Every board scores at least zero with a boundable objective, so the rest can only add to it
+            if (checkCutoff && total > cutoff) {
+                return ScoringEngine.ABANDONED;
+            }
+        }
+        return (int) Math.min(total, ScoringEngine.ABANDONED - 1);
+    }
+
+    /**
+     * Among the best scores, a guess that could solve one of the boards outright.
+     */
+    private static String bestOf(TopGuesses guesses, List<String> candidates) {
+        SortedMap<Integer, Set<String>> scores = guesses.asMap();
+        Set<String> tied = new LinkedHashSet<>(scores.get(scores.firstKey()));
+        for (String candidate : candidates) {
+            if (tied.contains(candidate)) {
+                return candidate;
+            }
+        }
+        return tied.stream().sorted().findFirst().get();
+    }
+
+    /**
+     * Records the feedback from every board for guess. Entries for boards already solved are ignored and may be null.
+     */
+    public void apply(String guess, List<KnownState.Outcome[]> outcomes) {
+        if (outcomes.size() != states.length) {
+            throw new IllegalArgumentException("need feedback for each of the " + states.length + " boards");
+        }
+        turns++;
+        PatternMatrix matrix = patternMatrix.get();
+        int guessOrdinal = matrix.ordinal(guess);
+        for (int board = 0; board < states.length; board++) {
+            if (solved[board]) {
+                continue;
+            }
+            KnownState.Outcome[] boardOutcomes = outcomes.get(board);
+            int pattern = KnownState.patternCode(boardOutcomes);
+            if (pattern == ScoringObjective.ALL_GREEN) {
+                solved[board] = true;
+                continue;
+            }
+            states[board].addGuess(guess, boardOutcomes);
+            candidates[board] = guessOrdinal < 0
+                    ? candidates[board].filterToValid(states[board])
+                    : candidates[board].filterTo(word -> matrix.pattern(guessOrdinal, matrix.ordinal(word)) == pattern);
+        }
+    }
+
+    public int boards() {
+        return states.length;
+    }
+
+    public boolean solved(int board) {
+        return solved[board];
+    }
+
+    public boolean allSolved() {
+        for (boolean boardSolved : solved) {
+            if (!boardSolved) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Dictionary candidates(int board) {
+        return candidates[board];
+    }
+
+    public KnownState knownState(int board) {
+        return states[board];
+    }
+
+    public int turns() {
+        return turns;
+    }
+
+    public String printState() {
+        return scoreToGuesses.toString();
+    }
+}
@@ -0,0 +1,744 @@
+package wordle.guesser.utilities;
+
+import javax.annotation.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Works out the best strategy over the whole game tree, where {@link BruteGuesser} only looks one guess ahead: either
+ * the fewest guesses summed over every answer (so the lowest average), or the fewest for the unluckiest answer.
+ * <p>
+ * The search is depth first branch and bound. Guesses are tried in order of how many candidates they'd leave on
+ * average, so the first gives a decent bound straight away, and a guess is dropped as soon as a lower bound on the rest
+ * of its subtree shows it can't beat the best so far. Each candidate set is looked up in a transposition table keyed by
+ * a fingerprint of the set, as the same set is reached through many orders of guesses. Sets big enough to be worth it
+ * have their guesses shared between fork-join threads, which all prune against the same bound.
+ * <p>
+ * The table has a fixed size, about wordle.optimalTableBytes (default 256MB), so a long search can't run out of
+ * memory. It can be checkpointed to a file and loaded again, so a long search picks up where it stopped.
+ */
+public class OptimalSolver implements AutoCloseable {
+
+    public enum Objective {
+        // Guesses summed over every answer, divide by the number of answers for the expected number of guesses
+        TOTAL_GUESSES,
+        WORST_CASE
+    }
+
+    private static final int MAGIC = 0x5747534f;
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 4;
+    // Set fingerprint, value, the guess (NO_GUESS when the value is only a lower bound), then the set's size
+    private static final int RECORD_BYTES = 8 + 4 + 4 + 4;
+    private static final int NO_GUESS = -1;
+    // Candidate sets at least this big have their guesses split between threads
+    private static final int PARALLEL_THRESHOLD = 100;
+    private static final int GUESSES_PER_TASK = 16;
+    private static final long TABLE_BYTES = Long.getLong("wordle.optimalTableBytes", 256L << 20);
+
+    private final PatternMatrix matrix;
+    private final Objective objective;
+    private final int guessWidth;
+    private final ForkJoinPool pool;
+    // A random key per word, a set's fingerprint is its members' keys xored together
+    private final long[] wordKeys;
+    private final Table table;
+    private final LongAdder statesSearched = new LongAdder();
+    @Nullable
+    private Path checkpointFile;
+    private Duration checkpointInterval;
+
+    public OptimalSolver(Dictionary dictionary, Objective objective) {
+        this(dictionary, objective, 0, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param guessWidth how many guesses to try from each state, best looking first. 0 tries every one, which is the
+     *                   only way the result is proven optimal.
+     */
+    public OptimalSolver(Dictionary dictionary, Objective objective, int guessWidth, int parallelism) {
+        this(dictionary, objective, guessWidth, parallelism, TABLE_BYTES);
+    }
+
+    /**
+     * @param tableBytes roughly how much memory the transposition table may take
+     */
+    public OptimalSolver(Dictionary dictionary, Objective objective, int guessWidth, int parallelism,
+                         long tableBytes) {
+        this.table = new Table(tableBytes);
+        this.matrix = PatternMatrix.forDictionary(dictionary);
+        this.objective = objective;
+        this.guessWidth = guessWidth;
+        this.pool = new ForkJoinPool(parallelism);
+        this.wordKeys = new long[matrix.size()];
+        for (int i = 0; i < wordKeys.length; i++) {
+            wordKeys[i] = mix((i + 1) * 0x9e3779b97f4a7c15L);
+        }
+    }
+
+    public static Path defaultCheckpoint(Dictionary dictionary, Objective objective, int guessWidth) {
+        return PatternMatrix.DEFAULT_DIRECTORY.resolve(String.format("optimal-%016x-%s-%d.bin",
+                PatternMatrix.fingerprint(dictionary), objective.name(), guessWidth));
+    }
+
+    /**
+     * Loads whatever an earlier search left in the file, and saves the table back to it every interval while solving.
+     */
+    public void setCheckpoint(Path file, Duration interval) throws IOException {
+        if (Files.exists(file)) {
+            load(file);
+        }
+        this.checkpointFile = file;
+        this.checkpointInterval = interval;
+    }
+
+    /**
+     * @return the objective's value for the whole dictionary
+     */
+    public int solve() {
+        int[] all = new int[matrix.size()];
+        Arrays.setAll(all, i -> i);
+        return solve(all);
+    }
+
+    public int solve(Collection<String> candidates) {
+        return solve(ordinals(candidates));
+    }
+
+    private int solve(int[] set) {
+        ScheduledExecutorService checkpoints = startCheckpoints();
+        try {
+            return pool.invoke(ForkJoinTask.adapt(() -> search(set, key(set), Integer.MAX_VALUE)));
+        } finally {
+            if (checkpoints != null) {
+                // Interrupting a checkpoint that's being written would close its channel under it
+                checkpoints.shutdown();
+                try {
+                    checkpoints.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                saveCheckpoint();
+            }
+        }
+    }
+
+    /**
+     * The first guess of an optimal strategy for the candidates, solving them first if they haven't been already.
+     */
+    @Nullable
+    public String bestGuess(Collection<String> candidates) {
+        int[] set = ordinals(candidates);
+        if (set.length == 0) {
+            return null;
+        }
+        if (set.length <= 2) {
+            return matrix.word(set[0]);
+        }
+        long key = key(set);
+        Entry entry = table.get(key);
+        if (entry == null || !entry.exact()) {
+            solve(set);
+            entry = table.get(key);
+        }
+        return matrix.word(entry.guess);
+    }
+
+    /**
+     * Plays the optimal strategy, for a {@link SolverSession} or {@link StrategyTree#build}.
+     */
+    public Guesser guesser() {
+        return new OptimalGuesser();
+    }
+
+    public int tableSize() {
+        return table.size();
+    }
+
+    /**
+     * States whose guesses have been searched, rather than answered from the table or the lower bound.
+     */
+    public long statesSearched() {
+        return statesSearched.sum();
+    }
+
+    /**
+     * @return the exact value if it's less than beta, otherwise a lower bound that's at least beta
+     */
+    private int search(int[] set, long key, int beta) {
+        int n = set.length;
+        int lower = lowerBound(n);
+        if (n <= 2) {
+            // Guess either, the bound is exact
+            return lower;
+        }
+        Entry entry = table.get(key);
+        if (entry != null) {
+            if (entry.exact() || entry.value >= beta) {
+                return entry.value;
+            }
+            lower = Math.max(lower, entry.value);
+        }
+        if (lower >= beta) {
+            return lower;
+        }
+        statesSearched.increment();
+
+        int[] histogram = new int[KnownState.PATTERN_COUNT];
+        // A candidate that leaves nothing bigger than a pair is worth exactly its bound, so it's optimal if that's
+        // as low as the set's
+        for (int guess : set) {
+            Move move = move(set, guess, histogram);
+            if (move.largest <= 2 && move.bound == lower) {
+                table.put(key, new Entry(lower, guess), n);
+                return lower;
+            }
+        }
+
+        Move[] moves = moves(set, histogram);
+        AtomicLong best = new AtomicLong(pack(beta, Integer.MAX_VALUE));
+        if (n >= PARALLEL_THRESHOLD && moves.length > 1) {
+            // The best looking guess sets the bound before the rest are shared out
+            tryMove(set, moves[0], lower, best);
+            new MoveTask(set, moves, 1, moves.length, lower, best).invoke();
+        } else {
+            for (Move move : moves) {
+                if (value(best.get()) <= lower) {
+                    break;
+                }
+                tryMove(set, move, lower, best);
+            }
+        }
+
+        long result = best.get();
+        if (value(result) < beta) {
+            table.put(key, new Entry(value(result), guess(result)), n);
+            return value(result);
+        }
+        // Every guess was shown to cost at least beta
+        table.put(key, new Entry(beta, NO_GUESS), n);
+        return beta;
+    }
+
+    /**
+     * Plays out the guess, and records it in best if it beats what's there.
+     */
+    private void tryMove(int[] set, Move move, int lower, AtomicLong best) {
+        int limit = value(best.get());
+        if (move.bound >= limit || limit <= lower) {
+            return;
+        }
+        List<Child> children = partition(set, move.guess);
+        int value;
+        if (objective == Objective.TOTAL_GUESSES) {
+            // Every answer takes this guess, then whatever its subtree needs
+            value = set.length;
+            int remaining = 0;
+            for (Child child : children) {
+                remaining += lowerBound(child.set.length);
+            }
+            for (Child child : children) {
+                int childLower = lowerBound(child.set.length);
+                remaining -= childLower;
+                int childBeta = value(best.get()) - value - remaining;
+                if (childBeta <= childLower) {
+                    return;
+                }
+                value += search(child.set, child.key, childBeta);
+                if (value + remaining >= value(best.get())) {
+                    return;
+                }
+            }
+        } else {
+            value = 1;
+            for (Child child : children) {
+                int childBeta = value(best.get()) - 1;
+                if (lowerBound(child.set.length) >= childBeta) {
+                    return;
+                }
+                value = Math.max(value, 1 + search(child.set, child.key, childBeta));
+                if (value >= value(best.get())) {
+                    return;
+                }
+            }
+        }
+        best.accumulateAndGet(pack(value, move.guess), Math::min);
+    }
+
+    /**
+     * Every guess that splits the set, one per distinct split, best looking first.
+     */
+    private Move[] moves(int[] set, int[] histogram) {
+        List<Move> moves = new ArrayList<>();
+        Set<Long> splits = new HashSet<>();
+        for (int guess = 0; guess < matrix.size(); guess++) {
+            Move move = move(set, guess, histogram);
+            if (move.largest == set.length && histogram[ScoringObjective.ALL_GREEN] == 0) {
+                // Tells nothing apart
+                continue;
+            }
+            if (splits.add(move.split)) {
+                moves.add(move);
+            }
+        }
+        moves.sort(Comparator.comparingInt((Move move) -> move.heuristic)
+                .thenComparing(move -> !move.candidate)
+                .thenComparingInt(move -> move.guess));
+        if (guessWidth > 0 && moves.size() > guessWidth) {
+            return moves.subList(0, guessWidth).toArray(new Move[0]);
+        }
+        return moves.toArray(new Move[0]);
+    }
+
+    private Move move(int[] set, int guess, int[] histogram) {
+        Arrays.fill(histogram, 0);
+        long split = 0xcbf29ce484222325L;
+        for (int answer : set) {
+            int pattern = matrix.pattern(guess, answer);
+            histogram[pattern]++;
+            split = (split ^ pattern) * 0x100000001b3L;
+        }
+        int largest = 0;
+        int bound = objective == Objective.TOTAL_GUESSES ? set.length : 1;
+        for (int pattern = 0; pattern < histogram.length; pattern++) {
+            int count = histogram[pattern];
+            if (count == 0) {
+                continue;
+            }
+            largest = Math.max(largest, count);
+            if (pattern == ScoringObjective.ALL_GREEN) {
+                continue;
+            }
+            bound = objective == Objective.TOTAL_GUESSES
+                    ? bound + lowerBound(count)
+                    : Math.max(bound, 1 + lowerBound(count));
+        }
+        return new Move(guess, ScoringObjective.EXPECTED_SIZE.score(histogram, set.length), bound, largest,
+                histogram[ScoringObjective.ALL_GREEN] > 0, split);
+    }
+
+    /**
+     * The sets left after the guess, other than the one it solves, biggest first since they're likeliest to cut.
+     */
+    private List<Child> partition(int[] set, int guess) {
+        int[] counts = new int[KnownState.PATTERN_COUNT];
+        for (int answer : set) {
+            counts[matrix.pattern(guess, answer)]++;
+        }
+        int[][] members = new int[KnownState.PATTERN_COUNT][];
+        long[] keys = new long[KnownState.PATTERN_COUNT];
+        int[] filled = new int[KnownState.PATTERN_COUNT];
+        for (int answer : set) {
+            int pattern = matrix.pattern(guess, answer);
+            if (members[pattern] == null) {
+                members[pattern] = new int[counts[pattern]];
+            }
+            members[pattern][filled[pattern]++] = answer;
+            keys[pattern] ^= wordKeys[answer];
+        }
+        List<Child> children = new ArrayList<>();
+        for (int pattern = 0; pattern < members.length; pattern++) {
+            if (members[pattern] != null && pattern != ScoringObjective.ALL_GREEN) {
+                children.add(new Child(members[pattern], keys[pattern]));
+            }
+        }
+        children.sort((a, b) -> Integer.compare(b.set.length, a.set.length));
+        return children;
+    }
+
+    /**
+     * What n candidates cost at the very least. Each guess solves at most one of them outright and splits the rest
+     * between the other patterns, so k guesses can solve at most 1 + (patterns - 1) * (what k - 1 guesses can).
+     */
+    private int lowerBound(int n) {
+        int guesses = 0;
+        long total = 0;
+        long solvable = 0;
+        while (solvable < n) {
+            // Answers still unsolved after this many guesses take at least one more
+            total += n - solvable;
+            guesses++;
+            solvable = Math.min(n, 1 + (KnownState.PATTERN_COUNT - 1) * solvable);
+        }
+        return objective == Objective.TOTAL_GUESSES ? (int) total : guesses;
+    }
+
+    private int[] ordinals(Collection<String> words) {
+        int[] ordinals = new int[words.size()];
+        int i = 0;
+        for (String word : words) {
+            ordinals[i] = matrix.ordinal(word);
+            if (ordinals[i] < 0) {
+                throw new IllegalArgumentException(word + " isn't in the solver's dictionary");
+            }
+            i++;
+        }
+        Arrays.sort(ordinals);
+        return ordinals;
+    }
+
+    private long key(int[] set) {
+        long key = 0;
+        for (int ordinal : set) {
+            key ^= wordKeys[ordinal];
+        }
+        return key;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    // Value in the high half, so the smallest packed value is the best guess (lowest ordinal on ties)
+    private static long pack(int value, int guess) {
+        return ((long) value << 32) | guess;
+    }
+
+    private static int value(long packed) {
+        return (int) (packed >>> 32);
+    }
+
+    private static int guess(long packed) {
+        return (int) packed;
+    }
+
+    @Nullable
+    private ScheduledExecutorService startCheckpoints() {
+        if (checkpointFile == null) {
+            return null;
+        }
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "optimal-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = checkpointInterval.toMillis();
+        executor.scheduleWithFixedDelay(this::saveCheckpoint, millis, millis, TimeUnit.MILLISECONDS);
+        return executor;
+    }
+
+    private synchronized void saveCheckpoint() {
+        try {
+            checkpoint(checkpointFile);
+        } catch (IOException e) {
+            System.out.println("Unable to checkpoint to " + checkpointFile + ": " + e);
+        }
+    }
+
+    /**
+     * Writes the transposition table to the file, replacing it in one go so a crash leaves the last checkpoint whole.
+     */
+    public void checkpoint(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "optimal", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(matrix.fingerprint());
+                out.writeInt(objective.ordinal());
+                out.writeInt(guessWidth);
+                table.write(out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public void load(Path file) throws IOException {
+        ByteBuffer contents;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            contents = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (contents.remaining() < HEADER_BYTES || contents.getInt() != MAGIC || contents.getInt() != VERSION) {
+            throw new IOException("not an optimal solver checkpoint, or an old version: " + file);
+        }
+        if (contents.getLong() != matrix.fingerprint() || contents.getInt() != objective.ordinal()
+                || contents.getInt() != guessWidth) {
+            throw new IOException("checkpoint was written for a different dictionary or settings: " + file);
+        }
+        while (contents.remaining() >= RECORD_BYTES) {
+            long key = contents.getLong();
+            Entry entry = new Entry(contents.getInt(), contents.getInt());
+            table.put(key, entry, contents.getInt());
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private static final class Entry {
+        final int value;
+        final int guess;
+
+        Entry(int value, int guess) {
+            this.value = value;
+            this.guess = guess;
+        }
+
+        boolean exact() {
+            return guess != NO_GUESS;
+        }
+
+        static Entry better(Entry a, Entry b) {
+            if (a.exact()) {
+                return a;
+            }
+            if (b.exact()) {
+                return b;
+            }
+            return a.value >= b.value ? a : b;
+        }
+    }
+
+    /**
+     * Slots in buckets of {@link #WAYS}. A new entry goes in an empty slot of its bucket, or failing that replaces the
+     * entry that's cheapest to work out again: lower bounds before exact values, then the smallest set.
+     */
+    private static final class Table {
+        private static final int WAYS = 4;
+        private static final int STRIPES = 1024;
+        private static final int SLOT_BYTES = 8 + 4 + 4 + 4;
+
+        private final long[] keys;
+        private final int[] values;
+        private final int[] guesses;
+        // 0 for an empty slot, sets of two or fewer are never stored
+        private final int[] sizes;
+        private final int bucketMask;
+        private final Object[] locks = new Object[STRIPES];
+        private final AtomicInteger size = new AtomicInteger();
+
+        Table(long bytes) {
+            int buckets = Integer.highestOneBit((int) Math.max(1, Math.min(bytes / SLOT_BYTES / WAYS, 1 << 26)));
+            keys = new long[buckets * WAYS];
+            values = new int[buckets * WAYS];
+            guesses = new int[buckets * WAYS];
+            sizes = new int[buckets * WAYS];
+            bucketMask = buckets - 1;
+            Arrays.setAll(locks, unused -> new Object());
+        }
+
+        @Nullable
+        Entry get(long key) {
+            int first = first(key);
+            synchronized (lock(first)) {
+                for (int slot = first; slot < first + WAYS; slot++) {
+                    if (sizes[slot] != 0 && keys[slot] == key) {
+                        return new Entry(values[slot], guesses[slot]);
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Stores the entry for a set of setSize candidates, keeping the better one if the set is already there.
+         */
+        void put(long key, Entry entry, int setSize) {
+            int first = first(key);
+            synchronized (lock(first)) {
+                int victim = first;
+                for (int slot = first; slot < first + WAYS; slot++) {
+                    if (sizes[slot] != 0 && keys[slot] == key) {
+                        entry = Entry.better(entry, new Entry(values[slot], guesses[slot]));
+                        victim = slot;
+                        break;
+                    }
+                    if (rank(slot) < rank(victim)) {
+                        victim = slot;
+                    }
+                }
+                if (sizes[victim] == 0) {
+                    size.incrementAndGet();
+                }
+                keys[victim] = key;
+                values[victim] = entry.value;
+                guesses[victim] = entry.guess;
+                sizes[victim] = setSize;
+            }
+        }
+
+        int size() {
+            return size.get();
+        }
+
+        /**
+         * Writes a record per entry, in the checkpoint's format.
+         */
+        void write(DataOutput out) throws IOException {
+            for (int first = 0; first < keys.length; first += WAYS) {
+                synchronized (lock(first)) {
+                    for (int slot = first; slot < first + WAYS; slot++) {
+                        if (sizes[slot] != 0) {
+                            out.writeLong(keys[slot]);
+                            out.writeInt(values[slot]);
+                            out.writeInt(guesses[slot]);
+                            out.writeInt(sizes[slot]);
+                        }
+                    }
+                }
+            }
+        }
+
+        private long rank(int slot) {
+            if (sizes[slot] == 0) {
+                return -1;
+            }
+            return (guesses[slot] == NO_GUESS ? 0 : 1L << 32) + sizes[slot];
+        }
+
+        private int first(long key) {
+            return ((int) key & bucketMask) * WAYS;
+        }
+
+        private Object lock(int first) {
+            return locks[(first / WAYS) & (STRIPES - 1)];
+        }
+    }
+
+    private static final class Move {
+        final int guess;
+        final int heuristic;
+        // No subtree under the guess can cost less than this
+        final int bound;
+        final int largest;
+        final boolean candidate;
+        // Fingerprint of the pattern each candidate gets, guesses with the same one are interchangeable
+        final long split;
+
+        Move(int guess, int heuristic, int bound, int largest, boolean candidate, long split) {
+            this.guess = guess;
+            this.heuristic = heuristic;
+            this.bound = bound;
+            this.largest = largest;
+            this.candidate = candidate;
+            this.split = split;
+        }
+    }
+
+    private static final class Child {
+        final int[] set;
+        final long key;
+
+        Child(int[] set, long key) {
+            this.set = set;
+            this.key = key;
+        }
+    }
+
+    private final class MoveTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] set;
+        private final Move[] moves;
+        private final int from;
+        private final int to;
+        private final int lower;
+        private final AtomicLong best;
+
+        MoveTask(int[] set, Move[] moves, int from, int to, int lower, AtomicLong best) {
+            this.set = set;
+            this.moves = moves;
+            this.from = from;
+            this.to = to;
+            this.lower = lower;
+            this.best = best;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > GUESSES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new MoveTask(set, moves, from, middle, lower, best),
+                        new MoveTask(set, moves, middle, to, lower, best));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                if (value(best.get()) <= lower) {
+                    return;
+                }
+                tryMove(set, moves[i], lower, best);
+            }
+        }
+    }
+
+    private final class OptimalGuesser implements Guesser {
+        @Nullable
+        private String guess;
+
+        @Override
+        public void determineFirstWords(Dictionary dictionary) {
+        }
+
+        /**
+         * Narrows the dictionary to the words that would have given every feedback so far. A {@link SolverSession}
+         * already hands over exactly those, which leaves it as is.
+         */
+        @Override
+        public void process(Dictionary dictionary, KnownState state) {
+            List<String> guesses = state.guessHistory();
+            List<Integer> patterns = state.patternHistory();
+            List<String> candidates = new ArrayList<>();
+            for (String word : dictionary.getWords()) {
+                boolean matches = true;
+                for (int turn = 0; turn < guesses.size() && matches; turn++) {
+                    matches = pattern(guesses.get(turn), word) == patterns.get(turn);
+                }
+                if (matches) {
+                    candidates.add(word);
+                }
+            }
+            this.guess = bestGuess(candidates);
+        }
+
+        private int pattern(String guess, String answer) {
+            int guessOrdinal = matrix.ordinal(guess);
+            int answerOrdinal = matrix.ordinal(answer);
+            return guessOrdinal < 0 || answerOrdinal < 0
+                    ? KnownState.patternCode(KnownState.getOutcomes(answer, guess))
+                    : matrix.pattern(guessOrdinal, answerOrdinal);
+        }
+
+        @Nullable
+        @Override
+        public String getBestGuess() {
+            return guess;
+        }
+
+        @Override
+        public String printState() {
+            return "{optimal: " + guess + "}";
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package wordle.guesser.utilities;
+
+import java.util.Arrays;
+
+/**
+ * Immutable, primitive-only form of a {@link KnownState}: the letters each position may still hold, the letters
+ * that must appear somewhere and the letters that can't appear at all. Letters are bits 0-25 for A-Z.
+ * Cheap to derive, hash and compare, so the scoring loops and filter caches work on this instead of KnownState.
+ */
+public final class PackedState {
+
+    public static final int ALL_LETTERS = (1 << 26) - 1;
+    public static final int POSITIONS = 5;
+    public static final PackedState EMPTY = empty(POSITIONS);
+
+    private final int[] allowed;
+    private final int required;
+    private final int disallowed;
+    private final int hash;
+
+    private PackedState(int[] allowed, int required, int disallowed) {
+        this.allowed = allowed;
+        this.required = required;
+        this.disallowed = disallowed;
+        this.hash = 31 * (31 * Arrays.hashCode(allowed) + required) + disallowed;
+    }
+
+    static PackedState of(int[] allowed, int required, int disallowed) {
+        int[] copy = allowed.clone();
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] &= ~disallowed;
+        }
+        return new PackedState(copy, required, disallowed);
+    }
+
+    /**
+     * Nothing known about a word of the length.
+     */
+    public static PackedState empty(int positions) {
+        return new PackedState(filled(positions, ALL_LETTERS), 0, 0);
+    }
+
+    /**
+     * The state after also learning the outcomes of guess, given as a {@link KnownState#patternCode}.
+     */
+    public PackedState withGuess(String guess, int patternCode) {
+        if (guess.length() == Words.LENGTH) {
+            return withGuess(Words.pack(guess), patternCode);
+        }
+        return withGuess(Words.packLong(guess), guess.length(), patternCode);
+    }
+
+    /**
+     * Same as {@link #withGuess(String, int)} for a {@link Words#pack packed} guess.
+     * A grey letter that is green or yellow elsewhere in the same guess only rules out its own position.
+     */
+    public PackedState withGuess(int packedGuess, int patternCode) {
+        return withGuess(packedGuess & 0xFFFFFFFFL, Words.LENGTH, patternCode);
+    }
+
+    /**
+     * Same as {@link #withGuess(String, int)} for a guess packed with {@link Words#packLong}.
+     */
+    public PackedState withGuess(long packedGuess, int length, int patternCode) {
+        int[] nextAllowed = allowed.clone();
+        int present = 0;
+        int greys = 0;
+        for (int i = 0; i < length; i++) {
+            int bit = 1 << Words.letterAt(packedGuess, i);
+            switch (patternCode % 3) {
+                case 2:
+                    nextAllowed[i] &= bit;
+                    present |= bit;
+                    break;
+                case 1:
+                    nextAllowed[i] &= ~bit;
+                    present |= bit;
+                    break;
+                default:
+                    nextAllowed[i] &= ~bit;
+                    greys |= bit;
+                    break;
+            }
+            patternCode /= 3;
+        }
+        int nextDisallowed = disallowed | (greys & ~present);
+        if (nextDisallowed != disallowed) {
+            for (int i = 0; i < nextAllowed.length; i++) {
+                nextAllowed[i] &= ~nextDisallowed;
+            }
+        }
+        return new PackedState(nextAllowed, required | present, nextDisallowed);
+    }
+
+    /**
+     * Whether the word could still be the answer. A word of another length never can.
+     */
+    public boolean satisfies(String word) {
+        if (word.length() != allowed.length) {
+            return false;
+        }
+        int seen = 0;
+        for (int i = 0; i < word.length(); i++) {
+            int bit = letterBit(word.charAt(i));
+            if ((allowed[i] & bit) == 0) {
+                return false;
+            }
+            seen |= bit;
+        }
+        return (required & ~seen) == 0;
+    }
+
+    public int allowed(int position) {
+        return allowed[position];
+    }
+
+    public int required() {
+        return required;
+    }
+
+    public int disallowed() {
+        return disallowed;
+    }
+
+    public int positions() {
+        return allowed.length;
+    }
+
+    static int letterBit(char c) {
+        return 1 << Words.letter(c);
+    }
+
+    private static int[] filled(int positions, int mask) {
+        int[] masks = new int[positions];
+        Arrays.fill(masks, mask);
+        return masks;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PackedState that = (PackedState) o;
+        return hash == that.hash
+                && required == that.required
+                && disallowed == that.disallowed
+                && Arrays.equals(allowed, that.allowed);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("PackedState{allowed=[");
+        for (int i = 0; i < allowed.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(letters(allowed[i]));
+        }
+        return sb.append("], required=").append(letters(required))
+                .append(", disallowed=").append(letters(disallowed))
+                .append('}').toString();
+    }
+
+    private static String letters(int mask) {
+        if (mask == ALL_LETTERS) {
+            return "*";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int letter = 0; letter < 26; letter++) {
+            if ((mask & (1 << letter)) != 0) {
+                sb.append((char) ('A' + letter));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,195 @@
+package wordle.guesser.utilities;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Ordering;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.IntStream;
+
+/**
+ * Feedback pattern (see {@link KnownState#patternCode}) for every guess x answer pair of a dictionary, one byte each.
+ * Big dictionaries are written to disk once and memory mapped by later runs.
+ * Ordinals are the position of a word in the sorted word list, so they don't depend on dictionary iteration order.
+ */
+public class PatternMatrix {
+
+    private static final int MAGIC = 0x5747504d;
+    @VisibleForTesting
+    static final int VERSION = 2;
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 8;
+    // Anything smaller is cheaper to rebuild than to keep around on disk
+    private static final int PERSIST_THRESHOLD = 2_000;
+    private static final int MAX_WORDS = 46_340;
+    static final Path DEFAULT_DIRECTORY = Paths.get(System.getProperty("user.home"), ".wordle-guesser");
+    private static final ConcurrentMap<Long, PatternMatrix> CACHE = new ConcurrentHashMap<>();
+
+    private final ImmutableList<String> words;
+    private final ImmutableMap<String, Integer> ordinals;
+    private final long fingerprint;
+    private final ByteBuffer patterns;
+
+    private PatternMatrix(ImmutableList<String> words, long fingerprint, ByteBuffer patterns) {
+        this.words = words;
+        this.fingerprint = fingerprint;
+        this.patterns = patterns;
+        ImmutableMap.Builder<String, Integer> builder = ImmutableMap.builderWithExpectedSize(words.size());
+        for (int i = 0; i < words.size(); i++) {
+            builder.put(words.get(i), i);
+        }
+        this.ordinals = builder.build();
+    }
+
+    /**
+     * Shared matrix for the dictionary, loaded from (or saved to) the default directory when the dictionary is big.
+     */
+    public static PatternMatrix forDictionary(Dictionary dictionary) {
+        ImmutableList<String> words = sortedWords(dictionary);
+        long fingerprint = fingerprint(words);
+        return CACHE.computeIfAbsent(fingerprint, fp -> {
+            if (words.size() < PERSIST_THRESHOLD) {
+                return build(words, fp);
+            }
+            try {
+                return loadOrBuild(words, fp, DEFAULT_DIRECTORY);
+            } catch (IOException e) {
+                System.out.println("Unable to persist pattern matrix, keeping it in memory: " + e);
+                return build(words, fp);
+            }
+        });
+    }
+
+    public static PatternMatrix build(Dictionary dictionary) {
+        ImmutableList<String> words = sortedWords(dictionary);
+        return build(words, fingerprint(words));
+    }
+
+    public static PatternMatrix loadOrBuild(Dictionary dictionary, Path directory) throws IOException {
+        ImmutableList<String> words = sortedWords(dictionary);
+        return loadOrBuild(words, fingerprint(words), directory);
+    }
+
+    private static PatternMatrix build(ImmutableList<String> words, long fingerprint) {
+        ByteBuffer buffer = ByteBuffer.allocate(words.size() * words.size());
+        fill(words, buffer);
+        return new PatternMatrix(words, fingerprint, buffer.asReadOnlyBuffer());
+    }
+
+    private static PatternMatrix loadOrBuild(ImmutableList<String> words, long fingerprint, Path directory)
+            throws IOException {
+        Path file = directory.resolve(String.format("patterns-%016x.bin", fingerprint));
+        long expectedSize = HEADER_BYTES + (long) words.size() * words.size();
+        if (Files.exists(file) && Files.size(file) == expectedSize) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                channel.read(header, 0);
+                header.flip();
+                if (header.getInt() == MAGIC && header.getInt() == VERSION
+                        && header.getInt() == words.size() && header.getLong() == fingerprint) {
+                    MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES,
+                            expectedSize - HEADER_BYTES);
+                    return new PatternMatrix(words, fingerprint, mapped);
+                }
+            }
+        }
+
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, "patterns", ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, expectedSize);
+            mapped.putInt(MAGIC).putInt(VERSION).putInt(words.size()).putLong(fingerprint);
+            fill(words, mapped.slice());
+            mapped.force();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return loadOrBuild(words, fingerprint, directory);
+    }
+
+    private static void fill(List<String> words, ByteBuffer buffer) {
+        int size = words.size();
+        int[] packed = words.stream().mapToInt(Words::pack).toArray();
+        IntStream.range(0, size).parallel().forEach(guess -> {
+            ByteBuffer row = buffer.duplicate();
+            int offset = guess * size;
+            for (int answer = 0; answer < size; answer++) {
+                row.put(offset + answer, (byte) Words.patternCode(packed[guess], packed[answer]));
+            }
+        });
+    }
+
+    private static ImmutableList<String> sortedWords(Dictionary dictionary) {
+        ImmutableList<String> words = ImmutableList.sortedCopyOf(Ordering.natural(), dictionary.getWords());
+        if (words.size() > MAX_WORDS) {
+            throw new IllegalArgumentException("too many words for a single buffer: " + words.size());
+        }
+        for (String word : words) {
+            if (!Words.isPackable(word)) {
+                throw new IllegalArgumentException("pattern matrix needs five letter A-Z words: " + word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * The fingerprint a matrix for the dictionary would have, without building one.
+     */
+    static long fingerprint(Dictionary dictionary) {
+        return fingerprint(sortedWords(dictionary));
+    }
+
+    private static long fingerprint(List<String> words) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        for (String word : words) {
+            hasher.putString(word, StandardCharsets.UTF_8).putByte((byte) '\n');
+        }
+        return hasher.hash().asLong();
+    }
+
+    /**
+     * @return the ordinal of the word, or -1 if it isn't in the matrix
+     */
+    public int ordinal(String word) {
+        Integer ordinal = ordinals.get(word);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    public String word(int ordinal) {
+        return words.get(ordinal);
+    }
+
+    public int pattern(int guessOrdinal, int answerOrdinal) {
+        return patterns.get(guessOrdinal * words.size() + answerOrdinal) & 0xFF;
+    }
+
+    public int pattern(String guess, String answer) {
+        int guessOrdinal = ordinal(guess);
+        int answerOrdinal = ordinal(answer);
+        if (guessOrdinal < 0 || answerOrdinal < 0) {
+            return Words.patternCode(Words.pack(guess), Words.pack(answer));
+        }
+        return pattern(guessOrdinal, answerOrdinal);
+    }
+
+    public int size() {
+        return words.size();
+    }
+
+    public long fingerprint() {
+        return fingerprint;
+    }
+}
@@ -0,0 +1,306 @@
+package wordle.guesser.utilities;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Guesses already worked out for a dictionary, kept in an append-only file so later runs start warm. Entries are
+ * keyed by {@link PackedState} and a {@link #fingerprint} of the candidates the guesser was handed, and each new entry is appended as soon as it's put, under a file lock so runs sharing
+ * the file don't overwrite each other. A run that dies mid-write leaves a partial record at the end, which is dropped
+ * on the next open. The same state may be appended twice by racing runs; {@link #compact()} rewrites the file with one
+ * record per state. The lock is taken on a ".lock" file beside the store, which compacting never replaces.
+ * <p>
+ * The file is named for the dictionary fingerprint and a signature of whatever produced the guesses, since different
+ * guessers (or the same one with different settings) don't agree on what to guess. PackedState doesn't track how many
+ * of a letter the answer has, so the same state can stand for different candidates, e.g. a {@link SolverSession}'s
+ * exact survivors or the whole dictionary to be narrowed with {@link Dictionary#filterToValid}. Keying by the
+ * candidates too keeps those apart.
+ */
+public class ResultStore implements AutoCloseable {
+
+    private static final int MAGIC = 0x57475253;
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4;
+    // Allowed letters per position, required, disallowed, the candidates' fingerprint, then the packed guess
+    private static final int RECORD_BYTES = 4 * (PackedState.POSITIONS + 3) + 8;
+
+    private static final HashFunction WORD_HASH = Hashing.murmur3_128();
+
+    // File locks are held by the whole JVM, so stores in one JVM take turns before locking
+    private static final Object FILE_LOCKS = new Object();
+
+    private final Path file;
+    private final long fingerprint;
+    private final ConcurrentMap<Key, String> results = new ConcurrentHashMap<>();
+    // The data file is replaced when compacted, so runs lock this one instead
+    private FileChannel lockChannel;
+    private FileChannel channel;
+    @Nullable
+    private Object fileKey;
+    private int appended;
+
+    private ResultStore(Path file, long fingerprint) {
+        this.file = file;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Opens the store for the dictionary and signature in the default directory.
+     *
+     * @param signature names the guesser and its settings, e.g. "brute-5"
+     */
+    public static ResultStore open(Dictionary dictionary, String signature) throws IOException {
+        return open(defaultLocation(dictionary, signature), dictionary);
+    }
+
+    public static ResultStore open(Path file, Dictionary dictionary) throws IOException {
+        if (dictionary.wordLength() != PackedState.POSITIONS) {
+            throw new IllegalArgumentException("results can only be stored for five letter words, got length "
+                    + dictionary.wordLength());
+        }
+        ResultStore store = new ResultStore(file, PatternMatrix.fingerprint(dictionary));
+        store.load();
+        return store;
+    }
+
+    public static Path defaultLocation(Dictionary dictionary, String signature) {
+        if (!signature.matches("[A-Za-z0-9_.-]+")) {
+            throw new IllegalArgumentException("signature has to be usable in a file name: " + signature);
+        }
+        return PatternMatrix.DEFAULT_DIRECTORY.resolve(
+                String.format("results-%016x-%s.bin", PatternMatrix.fingerprint(dictionary), signature));
+    }
+
+    private void load() throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        lockChannel = FileChannel.open(lockFile(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        synchronized (FILE_LOCKS) {
+            FileLock lock = lockChannel.lock();
+            try {
+                reopenIfReplaced();
+                // Another run may be creating the file too, only the first writes the header
+                if (channel.size() < HEADER_BYTES) {
+                    channel.truncate(0);
+                    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                    header.putInt(MAGIC).putInt(VERSION).putLong(fingerprint).putInt(PackedState.POSITIONS).flip();
+                    writeFully(header, 0);
+                    return;
+                }
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                channel.read(header, 0);
+                header.flip();
+                if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                    throw new IOException("not a result store, or an old version: " + file);
+                }
+                if (header.getLong() != fingerprint || header.getInt() != PackedState.POSITIONS) {
+                    throw new IOException("result store was written for a different dictionary: " + file);
+                }
+                readRecords();
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    /**
+     * Reads every record in the file into the results, keeping any already known. Only called holding the lock, so
+     * whatever follows the last whole record is a partial one left by a run that died mid-append, and is dropped.
+     */
+    private void readRecords() throws IOException {
+        long records = (channel.size() - HEADER_BYTES) / RECORD_BYTES;
+        channel.truncate(HEADER_BYTES + records * RECORD_BYTES);
+        ByteBuffer contents = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, records * RECORD_BYTES);
+        int[] allowed = new int[PackedState.POSITIONS];
+        for (long i = 0; i < records; i++) {
+            for (int position = 0; position < allowed.length; position++) {
+                allowed[position] = contents.getInt();
+            }
+            int required = contents.getInt();
+            int disallowed = contents.getInt();
+            Key key = new Key(PackedState.of(allowed, required, disallowed), contents.getLong());
+            results.putIfAbsent(key, Words.unpack(contents.getInt()));
+        }
+        appended = (int) records;
+    }
+
+    /**
+     * Order doesn't matter, and it's stable across runs so it can be stored. Cheap next to scoring the candidates.
+     */
+    public static long fingerprint(Dictionary candidates) {
+        long fingerprint = 0;
+        for (String word : candidates.getWords()) {
+            fingerprint += WORD_HASH.hashString(word, StandardCharsets.UTF_8).asLong();
+        }
+        return fingerprint;
+    }
+
+    /**
+     * @param candidates the {@link #fingerprint} of the candidates the guesser was handed
+     */
+    @Nullable
+    public String get(PackedState state, long candidates) {
+        return results.get(new Key(state, candidates));
+    }
+
+    /**
+     * Records the guess for the state and candidates and appends it to the file, unless they're already known.
+     */
+    public void put(PackedState state, long candidates, String guess) {
+        if (state.positions() != PackedState.POSITIONS || !Words.isPackable(guess)) {
+            throw new IllegalArgumentException("results can only be stored for five letter words: " + guess);
+        }
+        Key key = new Key(state, candidates);
+        if (results.putIfAbsent(key, guess) != null) {
+            return;
+        }
+        ByteBuffer record = record(key, guess);
+        synchronized (this) {
+            try {
+                append(record);
+                appended++;
+            } catch (IOException e) {
+                throw new RuntimeException("unable to append to " + file, e);
+            }
+        }
+    }
+
+    public int size() {
+        return results.size();
+    }
+
+    /**
+     * Rewrites the file with exactly one record per state, including any that other runs appended since this one
+     * opened it.
+     */
+    public synchronized void compact() throws IOException {
+        synchronized (FILE_LOCKS) {
+            FileLock lock = lockChannel.lock();
+            try {
+                reopenIfReplaced();
+                readRecords();
+                if (appended == results.size()) {
+                    return;
+                }
+                Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "results", ".tmp");
+                try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + results.size() * RECORD_BYTES);
+                    buffer.putInt(MAGIC).putInt(VERSION).putLong(fingerprint).putInt(PackedState.POSITIONS);
+                    for (Map.Entry<Key, String> entry : results.entrySet()) {
+                        buffer.put(record(entry.getKey(), entry.getValue()));
+                    }
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                    out.force(true);
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+                reopenIfReplaced();
+                appended = results.size();
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            channel.close();
+        } finally {
+            lockChannel.close();
+        }
+    }
+
+    private static ByteBuffer record(Key key, String guess) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+        for (int position = 0; position < PackedState.POSITIONS; position++) {
+            record.putInt(key.state.allowed(position));
+        }
+        record.putInt(key.state.required()).putInt(key.state.disallowed()).putLong(key.candidates)
+                .putInt(Words.pack(guess));
+        record.flip();
+        return record;
+    }
+
+    /**
+     * Writes at the end of the file while holding a lock on it, so runs appending to the same file don't both write
+     * at the size they read and overwrite each other's records.
+     */
+    private void append(ByteBuffer record) throws IOException {
+        synchronized (FILE_LOCKS) {
+            FileLock lock = lockChannel.lock();
+            try {
+                reopenIfReplaced();
+                writeFully(record, channel.size());
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    /**
+     * Compacting moves a new file into place, so a channel opened before then would write to the old one. Only called
+     * holding the lock.
+     */
+    private void reopenIfReplaced() throws IOException {
+        Object key = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+        if (key != null && key.equals(fileKey)) {
+            return;
+        }
+        channel.close();
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        fileKey = key;
+    }
+
+    private Path lockFile() {
+        return file.resolveSibling(file.getFileName() + ".lock");
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static final class Key {
+        private final PackedState state;
+        private final long candidates;
+
+        private Key(PackedState state, long candidates) {
+            this.state = state;
+            this.candidates = candidates;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key that = (Key) o;
+            return candidates == that.candidates && state.equals(that.state);
+        }
+
+        @Override
+        public int hashCode() {
+            return state.hashCode() * 31 + Long.hashCode(candidates);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package wordle.guesser.utilities;
+
+import com.google.common.base.Suppliers;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Long lived pool for scoring guesses in parallel. The guess list is split into chunks that the fork-join pool
+ * balances with work stealing; each chunk keeps its own {@link TopGuesses} and those are merged on the way back up.
+ * Share one engine between guessers rather than creating a pool per turn.
+ * <p>
+ * Chunks publish their worst kept score once they have guessesToKeep of them, and the lowest of those is a cutoff
+ * no guess scoring above can beat. {@link BoundedScorer}s get it so they can give up on hopeless guesses early.
+ */
+public class ScoringEngine implements AutoCloseable {
+
+    /**
+     * What a {@link BoundedScorer} returns for a guess it stopped scoring because it was already above the cutoff.
+     */
+    public static final int ABANDONED = Integer.MAX_VALUE;
+
+    private static final int DEFAULT_CHUNK_SIZE = 64;
+    private static final Supplier<ScoringEngine> SHARED =
+            Suppliers.memoize(() -> new ScoringEngine(Runtime.getRuntime().availableProcessors()));
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public ScoringEngine(int parallelism) {
+        this(parallelism, DEFAULT_CHUNK_SIZE);
+    }
+
+    public ScoringEngine(int parallelism, int chunkSize) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * One engine using every core, for everything that doesn't need its own.
+     */
+    public static ScoringEngine shared() {
+        return SHARED.get();
+    }
+
+    public TopGuesses score(List<String> guesses, ToIntFunction<String> scorer, int guessesToKeep) {
+        return score(guesses, (guess, cutoff) -> scorer.applyAsInt(guess), guessesToKeep);
+    }
+
+    /**
+     * Guesses early in the list are scored first, so put the likely good ones there to tighten the cutoff sooner.
+     */
+    public TopGuesses score(List<String> guesses, BoundedScorer scorer, int guessesToKeep) {
+        return score(guesses, scorer, guessesToKeep, ABANDONED - 1, () -> false);
+    }
+
+    /**
+     * Same as {@link #score(List, BoundedScorer, int)}, starting from a cutoff already known from other guesses and
+     * leaving the rest unscored once stop says so. Whatever was scored by then is still returned.
+     */
+    public TopGuesses score(List<String> guesses, BoundedScorer scorer, int guessesToKeep, int initialCutoff,
+                            BooleanSupplier stop) {
+        AtomicInteger cutoff = new AtomicInteger(initialCutoff);
+        return pool.invoke(new ScoreTask(guesses, scorer, guessesToKeep, cutoff, stop, 0, guesses.size()));
+    }
+
+    public int parallelism() {
+        return pool.getParallelism();
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    @FunctionalInterface
+    public interface BoundedScorer {
+        /**
+         * @return the score of guess, or {@link #ABANDONED} as soon as it's known to be above cutoff
+         */
+        int score(String guess, int cutoff);
+    }
+
+    private final class ScoreTask extends RecursiveTask<TopGuesses> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<String> guesses;
+        private final BoundedScorer scorer;
+        private final int guessesToKeep;
+        private final AtomicInteger cutoff;
+        private final BooleanSupplier stop;
+        private final int from;
+        private final int to;
+
+        private ScoreTask(List<String> guesses, BoundedScorer scorer, int guessesToKeep, AtomicInteger cutoff,
+                          BooleanSupplier stop, int from, int to) {
+            this.guesses = guesses;
+            this.scorer = scorer;
+            this.guessesToKeep = guessesToKeep;
+            this.cutoff = cutoff;
+            this.stop = stop;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TopGuesses compute() {
+            if (to - from <= chunkSize) {
+                TopGuesses local = new TopGuesses(guessesToKeep);
+                for (int i = from; i < to && !stop.getAsBoolean(); i++) {
+                    String guess = guesses.get(i);
+                    int score = scorer.score(guess, cutoff.get());
+                    if (score == ABANDONED) {
+                        continue;
+                    }
+                    local.add(score, guess);
+                    if (local.isFull() && local.worstScore() < cutoff.get()) {
+                        cutoff.accumulateAndGet(local.worstScore(), Math::min);
+                    }
+                }
+                return local;
+            }
+            int middle = (from + to) >>> 1;
+            // This thread carries on with the front of the list and idle ones steal the back half, so the guesses
+            // are still mostly scored in list order
+            ScoreTask right = new ScoreTask(guesses, scorer, guessesToKeep, cutoff, stop, middle, to);
+            right.fork();
+            TopGuesses left = new ScoreTask(guesses, scorer, guessesToKeep, cutoff, stop, from, middle).compute();
+            return left.merge(right.join());
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package wordle.guesser.utilities;
+
+/**
+ * Turns the feedback histogram of a guess into a score, lower is better. histogram[p] is the number of candidates
+ * that would give {@link KnownState#patternCode} p, so building one is a single pass over the candidates and every
+ * objective only looks at 243 buckets.
+ * <p>
+ * Other word lengths may pass any histogram whose last bucket is the all-green one, e.g. only the buckets that
+ * occur followed by the all-green count, since there are millions of patterns for twelve letters.
+ */
+public interface ScoringObjective {
+
+    // For five letter words, otherwise it's the last bucket
+    int ALL_GREEN = KnownState.PATTERN_COUNT - 1;
+
+    /**
+     * Sum of the bucket size over the candidates, i.e. candidates times the expected number left after the guess.
+     * The answer being the guess counts as nothing left.
+     */
+    ScoringObjective EXPECTED_SIZE = new ScoringObjective() {
+        @Override
+        public int score(int[] histogram, int candidates) {
+            int score = 0;
+            for (int pattern = 0; pattern < histogram.length - 1; pattern++) {
+                score += histogram[pattern] * histogram[pattern];
+            }
+            return score;
+        }
+
+        @Override
+        public boolean boundable() {
+            return true;
+        }
+
+        @Override
+        public int grow(int partial, int count) {
+            return partial + 2 * count - 1;
+        }
+
+        @Override
+        public String name() {
+            return "expected-size";
+        }
+    };
+
+    /**
+     * Shannon entropy of the feedback in micro-bits, negated so that more information scores lower. Ties go to a
+     * guess that could be the answer, otherwise every guess ties at zero once one candidate is left.
+     */
+    ScoringObjective ENTROPY = new ScoringObjective() {
+        @Override
+        public int score(int[] histogram, int candidates) {
+            double bits = 0;
+            for (int count : histogram) {
+                if (count > 0) {
+                    double p = (double) count / candidates;
+                    bits -= p * Math.log(p);
+                }
+            }
+            return (int) -Math.round(bits / Math.log(2) * 1_000_000) - (histogram[histogram.length - 1] > 0 ? 1 : 0);
+        }
+
+        @Override
+        public String name() {
+            return "entropy";
+        }
+    };
+
+    /**
+     * Size of the largest bucket, the worst case for the next turn.
+     */
+    ScoringObjective MINIMAX = new ScoringObjective() {
+        @Override
+        public int score(int[] histogram, int candidates) {
+            int largest = 0;
+            for (int pattern = 0; pattern < histogram.length - 1; pattern++) {
+                largest = Math.max(largest, histogram[pattern]);
+            }
+            return largest;
+        }
+
+        @Override
+        public boolean boundable() {
+            return true;
+        }
+
+        @Override
+        public int grow(int partial, int count) {
+            return Math.max(partial, count);
+        }
+
+        @Override
+        public String name() {
+            return "minimax";
+        }
+    };
+
+    /**
+     * Expected number of guesses still needed after this one, in thousandths, times the candidates. Looks one turn
+     * ahead: a bucket of one is solved by the next guess, and a bucket of n needs at least 2 - 1/n guesses on
+     * average (at best the next guess is one of them and tells the rest apart) and at least log243(n) more to tell
+     * n answers apart at all.
+     */
+    ScoringObjective EXPECTED_GUESSES = new ScoringObjective() {
+        private final double log243 = Math.log(KnownState.PATTERN_COUNT);
+
+        @Override
+        public int score(int[] histogram, int candidates) {
+            double guesses = 0;
+            for (int pattern = 0; pattern < histogram.length - 1; pattern++) {
+                guesses += guesses(histogram[pattern]);
+            }
+            return (int) Math.round(guesses * 1000);
+        }
+
+        @Override
+        public boolean boundable() {
+            return true;
+        }
+
+        // Rounded down, the steps never add up to more than the rounded total
+        @Override
+        public int grow(int partial, int count) {
+            return partial + (int) Math.floor((guesses(count) - guesses(count - 1)) * 1000);
+        }
+
+        private double guesses(int count) {
+            return count == 0 ? 0 : count * Math.max(2 - 1.0 / count, 1 + Math.log(count) / log243);
+        }
+
+        @Override
+        public String name() {
+            return "expected-guesses";
+        }
+    };
+
+    static ScoringObjective named(String name) {
+        for (ScoringObjective objective : new ScoringObjective[] {EXPECTED_SIZE, ENTROPY, MINIMAX, EXPECTED_GUESSES}) {
+            if (objective.name().equals(name)) {
+                return objective;
+            }
+        }
+        throw new IllegalArgumentException("no scoring objective named " + name);
+    }
+
+    int score(int[] histogram, int candidates);
+
+    /**
+     * Whether a histogram of only some of the candidates never scores above the full one. Lets a guess be abandoned
+     * as soon as part of its histogram is already worse than the guesses being kept.
+     */
+    default boolean boundable() {
+        return false;
+    }
+
+    /**
+     * For a boundable objective, the score of a partial histogram after one of its buckets other than the all-green
+     * one grows to count, given the score before (0 for an empty histogram). Never above {@link #score} of the same
+     * histogram, so it can be checked against a cutoff on every candidate without going over the buckets again.
+     */
+    default int grow(int partial, int count) {
+        throw new UnsupportedOperationException(name() + " can't score a partial histogram");
+    }
+
+    /**
+     * Short name, for telling apart results computed with different objectives.
+     */
+    String name();
+}
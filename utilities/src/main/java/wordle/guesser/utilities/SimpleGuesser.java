@@ -17,7 +17,7 @@ public class SimpleGuesser implements Guesser {
 
     @Override
     public void determineFirstWords(Dictionary dictionary) {
-        process(dictionary, new KnownState());
+        process(dictionary, KnownState.forDictionary(dictionary));
     }
 
     @Override
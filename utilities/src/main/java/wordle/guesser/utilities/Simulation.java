@@ -0,0 +1,173 @@
+package wordle.guesser.utilities;
+
+import java.io.PrintStream;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Plays many answers through a guesser in parallel. A guesser's choice only depends on what's known, so all games
+ * share one memo of state to guess and every distinct state is only worked out once, by whichever game gets there
+ * first. After a fixed opener there are at most 243 second turn states for any number of games.
+ */
+public class Simulation {
+
+    private static final int MAX_TURNS = 20;
+
+    private final Dictionary dictionary;
+    private final Supplier<Guesser> guesserFactory;
+    private final int parallelism;
+    private final ConcurrentMap<PackedState, CompletableFuture<String>> memo = new ConcurrentHashMap<>();
+
+    /**
+     * @param guesserFactory guessers keep per turn state, so each game gets its own
+     */
+    public Simulation(Dictionary dictionary, Supplier<Guesser> guesserFactory, int parallelism) {
+        this.dictionary = dictionary;
+        this.guesserFactory = guesserFactory;
+        this.parallelism = parallelism;
+    }
+
+    public Result run(Collection<String> answers) {
+        return run(answers, played -> {});
+    }
+
+    /**
+     * @param progress called with the number of games finished so far after each game
+     */
+    public Result run(Collection<String> answers, IntConsumer progress) {
+        Result result = new Result();
+        ExecutorService exec = Executors.newFixedThreadPool(parallelism);
+        AtomicInteger played = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>(answers.size());
+        for (String answer : answers) {
+            futures.add(exec.submit(() -> {
+                result.record(answer, play(answer, result));
+                progress.accept(played.incrementAndGet());
+            }));
+        }
+        exec.shutdown();
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted while simulating", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("simulation failed", e.getCause());
+        } finally {
+            exec.shutdownNow();
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of guesses it took to find the answer
+     */
+    public int play(String answer) {
+        return play(answer, new Result());
+    }
+
+    private int play(String answer, Result result) {
+        Guesser guesser = guesserFactory.get();
+        KnownState knownState = KnownState.forDictionary(dictionary);
+        for (int turn = 1; turn <= MAX_TURNS; turn++) {
+            long start = System.nanoTime();
+            String guess = decide(guesser, knownState, result.turn(turn));
+            result.turn(turn).nanos.add(System.nanoTime() - start);
+            if (guess.equals(answer)) {
+                return turn;
+            }
+            knownState.addGuess(guess, KnownState.getOutcomes(answer, guess));
+        }
+        throw new IllegalStateException("no answer after " + MAX_TURNS + " guesses for " + answer);
+    }
+
+    private String decide(Guesser guesser, KnownState knownState, TurnStats stats) {
+        stats.decisions.increment();
+        PackedState key = knownState.toPacked();
+        CompletableFuture<String> existing = memo.get(key);
+        if (existing == null) {
+            CompletableFuture<String> mine = new CompletableFuture<>();
+            existing = memo.putIfAbsent(key, mine);
+            if (existing == null) {
+                try {
+                    guesser.process(dictionary, knownState);
+                    String guess = guesser.getBestGuess();
+                    if (guess == null) {
+                        throw new IllegalStateException("no guess for " + knownState);
+                    }
+                    mine.complete(guess);
+                    return guess;
+                } catch (RuntimeException e) {
+                    memo.remove(key, mine);
+                    mine.completeExceptionally(e);
+                    throw e;
+                }
+            }
+        }
+        stats.memoHits.increment();
+        return existing.join();
+    }
+
+    public int memoSize() {
+        return memo.size();
+    }
+
+    public static class Result {
+        private final ConcurrentSkipListMap<Integer, Set<String>> answersByGuesses = new ConcurrentSkipListMap<>();
+        private final ConcurrentSkipListMap<Integer, TurnStats> turns = new ConcurrentSkipListMap<>();
+
+        private void record(String answer, int guesses) {
+            answersByGuesses.computeIfAbsent(guesses, unused -> ConcurrentHashMap.newKeySet()).add(answer);
+        }
+
+        private TurnStats turn(int turn) {
+            return turns.computeIfAbsent(turn, unused -> new TurnStats());
+        }
+
+        public SortedMap<Integer, Set<String>> answersByGuesses() {
+            return Collections.unmodifiableSortedMap(answersByGuesses);
+        }
+
+        public int games() {
+            return answersByGuesses.values().stream().mapToInt(Set::size).sum();
+        }
+
+        public double averageGuesses() {
+            long total = 0;
+            for (Map.Entry<Integer, Set<String>> entry : answersByGuesses.entrySet()) {
+                total += (long) entry.getKey() * entry.getValue().size();
+            }
+            return games() == 0 ? 0 : (double) total / games();
+        }
+
+        public void print(PrintStream out) {
+            for (Map.Entry<Integer, Set<String>> entry : answersByGuesses.entrySet()) {
+                out.println("Score: " + entry.getKey() + ", count: " + entry.getValue().size());
+            }
+            out.println("Average: " + averageGuesses() + " over " + games() + " games");
+            for (Map.Entry<Integer, TurnStats> entry : turns.entrySet()) {
+                out.println("Turn " + entry.getKey() + ": " + entry.getValue());
+            }
+        }
+    }
+
+    private static class TurnStats {
+        private final LongAdder decisions = new LongAdder();
+        private final LongAdder memoHits = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        @Override
+        public String toString() {
+            long count = decisions.sum();
+            return count + " decisions, " + memoHits.sum() + " memo hits, "
+                    + TimeUnit.NANOSECONDS.toMillis(nanos.sum()) + "ms total, "
+                    + (count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(nanos.sum() / count)) + "us average";
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package wordle.guesser.utilities;
+
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Process-wide call counts, latency histograms and cache figures for the solver. Readable through {@link #dump()},
+ * or over JMX once {@link #registerMBean()} has been called. Each turn is also a {@link TurnEvent} for JFR.
+ * <p>
+ * Timers are off unless turned on, with -Dwordle.metrics=true, {@link #setEnabled} or the Enabled attribute over JMX.
+ * Once on, recording is a couple of {@link System#nanoTime()} calls and {@link LongAdder} increments per call.
+ */
+public final class SolverMetrics {
+
+    private static volatile boolean enabled = Boolean.getBoolean("wordle.metrics");
+    public static final String OBJECT_NAME = "wordle.guesser:type=SolverMetrics";
+
+    public static final Timer FILTER_TO_VALID = new Timer("filterToValid");
+    public static final Timer SIZE_AFTER_FILTERING = new Timer("sizeAfterFiltering");
+    public static final Timer GET_OUTCOMES = new Timer("getOutcomes");
+    // BruteGuesser.process: working out candidates and guesses, then scoring them
+    public static final Timer PROCESS = new Timer("process");
+    public static final Timer PROCESS_PREPARE = new Timer("process.prepare");
+    public static final Timer PROCESS_SCORE = new Timer("process.score");
+    private static final List<Timer> TIMERS = ImmutableList.of(FILTER_TO_VALID, SIZE_AFTER_FILTERING, GET_OUTCOMES,
+            PROCESS, PROCESS_PREPARE, PROCESS_SCORE);
+
+    static final LongAdder GUESSES_SCORED = new LongAdder();
+    // Dictionary.filterToValid's cache of states without guesses
+    static final LongAdder STATE_CACHE_HITS = new LongAdder();
+    static final LongAdder STATE_CACHE_MISSES = new LongAdder();
+    // The filterToValid caches of every dictionary still around, weakly so dictionaries can still be collected
+    private static final List<WeakReference<Map<?, ?>>> STATE_CACHES = new ArrayList<>();
+    private static int purgeStateCachesAt = 64;
+
+    private SolverMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts or stops timing calls. Calls in flight when it's turned on aren't counted.
+     */
+    public static void setEnabled(boolean enabled) {
+        SolverMetrics.enabled = enabled;
+    }
+
+    public static List<Timer> timers() {
+        return TIMERS;
+    }
+
+    static void trackStateCache(Map<?, ?> cache) {
+        synchronized (STATE_CACHES) {
+            if (STATE_CACHES.size() >= purgeStateCachesAt) {
+                STATE_CACHES.removeIf(reference -> reference.get() == null);
+                purgeStateCachesAt = Math.max(64, 2 * STATE_CACHES.size());
+            }
+            STATE_CACHES.add(new WeakReference<>(cache));
+        }
+    }
+
+    /**
+     * Summed over the filterToValid caches of dictionaries that haven't been garbage collected.
+     */
+    public static int stateCacheSize() {
+        int size = 0;
+        synchronized (STATE_CACHES) {
+            for (WeakReference<Map<?, ?>> reference : STATE_CACHES) {
+                Map<?, ?> cache = reference.get();
+                if (cache != null) {
+                    size += cache.size();
+                }
+            }
+        }
+        return size;
+    }
+
+    public static CacheStats countCacheStats() {
+        return Dictionary.filterCacheStats();
+    }
+
+    public static long countCacheSize() {
+        return Dictionary.filterCacheSize();
+    }
+
+    public static void reset() {
+        for (Timer timer : TIMERS) {
+            timer.reset();
+        }
+        GUESSES_SCORED.reset();
+        STATE_CACHE_HITS.reset();
+        STATE_CACHE_MISSES.reset();
+    }
+
+    /**
+     * Publishes the metrics as an MXBean named {@link #OBJECT_NAME}. Calling it again does nothing.
+     */
+    public static void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MXBean(), new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Already published
+        } catch (JMException e) {
+            throw new RuntimeException("unable to register " + OBJECT_NAME, e);
+        }
+    }
+
+    public static String dump() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-20s %10s %10s %10s %10s %10s%n", "", "calls", "mean ms", "p50 ms", "p99 ms",
+                "max ms"));
+        for (Timer timer : TIMERS) {
+            out.append(String.format("%-20s %10d %10.3f %10.3f %10.3f %10.3f%n", timer.name(), timer.count(),
+                    timer.meanNanos() / 1e6, timer.percentileNanos(0.5) / 1e6, timer.percentileNanos(0.99) / 1e6,
+                    timer.maxNanos() / 1e6));
+        }
+        out.append("guesses scored: ").append(GUESSES_SCORED.sum()).append(System.lineSeparator());
+        out.append(String.format("state cache: %d states, %d hits, %d misses%n", stateCacheSize(),
+                STATE_CACHE_HITS.sum(), STATE_CACHE_MISSES.sum()));
+        CacheStats counts = countCacheStats();
+        out.append(String.format("count cache: %d entries, %d hits, %d misses, %.1f%% hit rate, %d evictions%n",
+                countCacheSize(), counts.hitCount(), counts.missCount(), counts.hitRate() * 100,
+                counts.evictionCount()));
+        return out.toString();
+    }
+
+    /**
+     * Calls and their latency, in power of two buckets of nanoseconds.
+     */
+    public static final class Timer {
+        private static final int BUCKETS = 64;
+
+        private final String name;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder[] histogram = new LongAdder[BUCKETS];
+
+        private Timer(String name) {
+            this.name = name;
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram[i] = new LongAdder();
+            }
+        }
+
+        /**
+         * @return what to hand to {@link #stop}
+         */
+        public long start() {
+            return enabled ? System.nanoTime() : 0;
+        }
+
+        public void stop(long start) {
+            if (enabled && start != 0) {
+                record(System.nanoTime() - start);
+            }
+        }
+
+        void record(long nanos) {
+            nanos = Math.max(nanos, 1);
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            histogram[BUCKETS - 1 - Long.numberOfLeadingZeros(nanos)].increment();
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        public double meanNanos() {
+            long calls = count.sum();
+            return calls == 0 ? 0 : (double) totalNanos.sum() / calls;
+        }
+
+        public long maxNanos() {
+            return maxNanos.get();
+        }
+
+        /**
+         * Upper bound of the bucket the percentile falls in (or the slowest call), so within a factor of two.
+         */
+        public long percentileNanos(double percentile) {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = histogram[i].sum();
+                total += counts[i];
+            }
+            long rank = (long) Math.ceil(percentile * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank && seen > 0) {
+                    return i == BUCKETS - 1 ? maxNanos() : Math.min((2L << i) - 1, maxNanos());
+                }
+            }
+            return 0;
+        }
+
+        private void reset() {
+            count.reset();
+            totalNanos.reset();
+            maxNanos.reset();
+            for (LongAdder bucket : histogram) {
+                bucket.reset();
+            }
+        }
+    }
+
+    private static final class MXBean implements SolverMetricsMXBean {
+        @Override
+        public Map<String, Long> getCalls() {
+            Map<String, Long> calls = new LinkedHashMap<>();
+            for (Timer timer : TIMERS) {
+                calls.put(timer.name(), timer.count());
+            }
+            return calls;
+        }
+
+        @Override
+        public Map<String, Double> getMeanMillis() {
+            return millis(Timer::meanNanos);
+        }
+
+        @Override
+        public Map<String, Double> getP99Millis() {
+            return millis(timer -> timer.percentileNanos(0.99));
+        }
+
+        @Override
+        public Map<String, Double> getMaxMillis() {
+            return millis(Timer::maxNanos);
+        }
+
+        private static Map<String, Double> millis(ToDoubleFunction<Timer> nanos) {
+            Map<String, Double> millis = new LinkedHashMap<>();
+            for (Timer timer : TIMERS) {
+                millis.put(timer.name(), nanos.applyAsDouble(timer) / 1e6);
+            }
+            return millis;
+        }
+
+        @Override
+        public long getGuessesScored() {
+            return GUESSES_SCORED.sum();
+        }
+
+        @Override
+        public int getStateCacheSize() {
+            return stateCacheSize();
+        }
+
+        @Override
+        public long getStateCacheHits() {
+            return STATE_CACHE_HITS.sum();
+        }
+
+        @Override
+        public long getStateCacheMisses() {
+            return STATE_CACHE_MISSES.sum();
+        }
+
+        @Override
+        public long getCountCacheSize() {
+            return countCacheSize();
+        }
+
+        @Override
+        public double getCountCacheHitRate() {
+            return countCacheStats().hitRate();
+        }
+
+        @Override
+        public long getCountCacheEvictions() {
+            return countCacheStats().evictionCount();
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return SolverMetrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            SolverMetrics.setEnabled(enabled);
+        }
+
+        @Override
+        public void reset() {
+            SolverMetrics.reset();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package wordle.guesser.utilities;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link SolverMetrics}. Timings are keyed by timer name.
+ */
+public interface SolverMetricsMXBean {
+
+    Map<String, Long> getCalls();
+
+    Map<String, Double> getMeanMillis();
+
+    Map<String, Double> getP99Millis();
+
+    Map<String, Double> getMaxMillis();
+
+    long getGuessesScored();
+
+    int getStateCacheSize();
+
+    long getStateCacheHits();
+
+    long getStateCacheMisses();
+
+    long getCountCacheSize();
+
+    double getCountCacheHitRate();
+
+    long getCountCacheEvictions();
+
+    boolean isEnabled();
+
+    /**
+     * Timers only record while enabled, see {@link SolverMetrics#setEnabled}.
+     */
+    void setEnabled(boolean enabled);
+
+    void reset();
+}
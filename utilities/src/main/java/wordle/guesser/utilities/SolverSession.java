@@ -0,0 +1,219 @@
+package wordle.guesser.utilities;
+
+import com.google.common.base.Suppliers;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * One game in progress. Keeps the answers still possible and narrows them as feedback comes in, so each turn only
+ * looks at the survivors of the last one instead of the whole dictionary. The guesser is handed the survivors as its
+ * dictionary.
+ * <p>
+ * Survivors are the candidates that would have given exactly the feedback seen. With a five letter A-Z dictionary
+ * that's read off the {@link PatternMatrix} the guesser scored with, otherwise it falls back to
+ * {@link Dictionary#filterToValid}.
+ * <p>
+ * With {@link #speculate} on, the session works out the following guess for the likeliest feedback while the
+ * player is still typing it in: each guess handed out starts a background guesser on the biggest buckets of the
+ * candidates, biggest first. Feedback that lands in one of those picks up its result, and the rest is cancelled.
+ */
+public class SolverSession {
+
+    private final Guesser guesser;
+    private final KnownState knownState;
+    @Nullable
+    private final Supplier<PatternMatrix> patternMatrix;
+    private Dictionary candidates;
+    private int turns;
+    @Nullable
+    private Supplier<Guesser> speculativeGuessers;
+    private int speculations;
+    @Nullable
+    private ThreadPoolExecutor speculator;
+    @Nullable
+    private String speculatedGuess;
+    // By feedback pattern, for the last guess handed out
+    private final Map<Integer, Speculation> speculating = new HashMap<>();
+    @Nullable
+    private Speculation ready;
+    private Guesser lastGuesser;
+
+    public SolverSession(Dictionary dictionary, Guesser guesser) {
+        this.guesser = guesser;
+        this.lastGuesser = guesser;
+        this.candidates = dictionary;
+        this.knownState = KnownState.forDictionary(dictionary);
+        this.patternMatrix = dictionary.getWords().stream().allMatch(Words::isPackable)
+                ? Suppliers.memoize(() -> PatternMatrix.forDictionary(dictionary))
+                : null;
+    }
+
+    /**
+     * Precompute guesses for the biggest few buckets of every guess handed out from now on.
+     *
+     * @param guessers makes a guesser for each bucket, which should decide the same way as this session's
+     * @param buckets how many of the biggest buckets to work ahead on
+     */
+    public void speculate(Supplier<Guesser> guessers, int buckets) {
+        this.speculativeGuessers = guessers;
+        this.speculations = buckets;
+        if (speculator == null) {
+            speculator = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                    new ThreadFactoryBuilder().setDaemon(true).setNameFormat("speculator-%d").build());
+            speculator.allowCoreThreadTimeOut(true);
+        }
+    }
+
+    /**
+     * Asks the guesser for a guess against the remaining candidates, or picks up the guess worked out for them ahead
+     * of time.
+     */
+    @Nullable
+    public String nextGuess() {
+        TurnEvent event = new TurnEvent();
+        event.begin();
+        String guess = speculatedNextGuess();
+        event.speculated = guess != null;
+        if (guess == null) {
+            lastGuesser = guesser;
+            guesser.process(candidates, knownState);
+            guess = guesser.getBestGuess();
+        }
+        if (event.shouldCommit()) {
+            event.turn = turns + 1;
+            event.candidates = candidates.size();
+            event.guess = guess;
+            event.commit();
+        }
+        if (guess != null && speculativeGuessers != null) {
+            startSpeculating(guess);
+        }
+        return guess;
+    }
+
+    @Nullable
+    private String speculatedNextGuess() {
+        Speculation speculation = ready;
+        ready = null;
+        if (speculation == null) {
+            return null;
+        }
+        try {
+            // Already running or done, waiting is no slower than starting over
+            speculation.future.get();
+        } catch (ExecutionException | CancellationException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        lastGuesser = speculation.guesser;
+        return speculation.guesser.getBestGuess();
+    }
+
+    private void startSpeculating(String guess) {
+        int guessOrdinal = patternMatrix == null || guess.length() != Words.LENGTH
+                ? -1
+                : patternMatrix.get().ordinal(guess);
+        if (guessOrdinal < 0) {
+            return;
+        }
+        PatternMatrix matrix = patternMatrix.get();
+        int[] histogram = new int[KnownState.PATTERN_COUNT];
+        for (String word : candidates.getWords()) {
+            histogram[matrix.pattern(guessOrdinal, matrix.ordinal(word))]++;
+        }
+        List<Integer> patterns = new ArrayList<>();
+        for (int pattern = 0; pattern < ScoringObjective.ALL_GREEN; pattern++) {
+            if (histogram[pattern] > 0) {
+                patterns.add(pattern);
+            }
+        }
+        patterns.sort((a, b) -> Integer.compare(histogram[b], histogram[a]));
+        speculatedGuess = guess;
+        Dictionary current = candidates;
+        for (int pattern : patterns.subList(0, Math.min(speculations, patterns.size()))) {
+            KnownState state = knownState.deepCopy();
+            state.addGuess(guess, KnownState.decodePattern(pattern, Words.LENGTH));
+            Guesser speculative = speculativeGuessers.get();
+            Future<?> future = speculator.submit(() -> speculative.process(
+                    current.filterTo(word -> matrix.pattern(guessOrdinal, matrix.ordinal(word)) == pattern), state));
+            speculating.put(pattern, new Speculation(speculative, future));
+        }
+    }
+
+    /**
+     * Keeps the speculation for the feedback, if the guess was the one handed out, and cancels the rest.
+     */
+    private void stopSpeculating(String guess, int pattern) {
+        if (guess.equals(speculatedGuess)) {
+            ready = speculating.remove(pattern);
+        }
+        for (Speculation speculation : speculating.values()) {
+            speculation.future.cancel(false);
+            speculation.guesser.cancel();
+        }
+        speculating.clear();
+        speculatedGuess = null;
+    }
+
+    /**
+     * Records the feedback Wordle gave for guess and drops the candidates that wouldn't have given it.
+     */
+    public void apply(String guess, KnownState.Outcome... outcomes) {
+        stopSpeculating(guess, outcomes.length == Words.LENGTH ? KnownState.patternCode(outcomes) : -1);
+        knownState.addGuess(guess, outcomes);
+        turns++;
+        int guessOrdinal = patternMatrix == null || outcomes.length != Words.LENGTH
+                ? -1
+                : patternMatrix.get().ordinal(guess);
+        if (guessOrdinal < 0) {
+            candidates = candidates.filterToValid(knownState);
+            return;
+        }
+        PatternMatrix matrix = patternMatrix.get();
+        int pattern = KnownState.patternCode(outcomes);
+        candidates = candidates.filterTo(word -> matrix.pattern(guessOrdinal, matrix.ordinal(word)) == pattern);
+    }
+
+    public Dictionary candidates() {
+        return candidates;
+    }
+
+    /**
+     * What's known so far. Owned by the session, use {@link #apply} to add to it.
+     */
+    public KnownState knownState() {
+        return knownState;
+    }
+
+    public int turns() {
+        return turns;
+    }
+
+    public String printState() {
+        return lastGuesser.printState();
+    }
+
+    private static class Speculation {
+        private final Guesser guesser;
+        private final Future<?> future;
+
+        private Speculation(Guesser guesser, Future<?> future) {
+            this.guesser = guesser;
+            this.future = future;
+        }
+    }
+}
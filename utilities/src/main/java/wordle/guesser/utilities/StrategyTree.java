@@ -0,0 +1,233 @@
+package wordle.guesser.utilities;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * A guesser's complete decision tree for a dictionary: each node is a state and the guess made there, with one
+ * child per feedback pattern some remaining answer would give. Expanded once offline, then memory mapped so that
+ * following a game is a handful of lookups.
+ * <p>
+ * Like a {@link SolverSession}, the guesser at each node is handed exactly the answers that would have given the
+ * feedback so far, rather than whatever {@link Dictionary#filterToValid} lets through, so the tree agrees with a
+ * session's guesser turn for turn.
+ * <p>
+ * Layout after the header: nodes as (guess ordinal, first edge, edge count) and edges as (pattern, child node),
+ * each node's edges sorted by pattern. Guess ordinals are {@link PatternMatrix} ordinals.
+ */
+public class StrategyTree {
+
+    private static final int MAGIC = 0x57475354;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 4;
+    private static final int NODE_BYTES = 12;
+    private static final int EDGE_BYTES = 8;
+    private static final int ALL_GREEN = KnownState.PATTERN_COUNT - 1;
+    // Deeper than any sensible game, keeps a guesser that stops making progress from expanding forever
+    private static final int MAX_DEPTH = 12;
+
+    private final PatternMatrix matrix;
+    private final ByteBuffer buffer;
+    private final int nodeCount;
+
+    private StrategyTree(PatternMatrix matrix, ByteBuffer buffer) {
+        this.matrix = matrix;
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("not a strategy tree, or an old version");
+        }
+        if (buffer.getLong(8) != matrix.fingerprint()) {
+            throw new IllegalArgumentException("strategy tree was built for a different dictionary");
+        }
+        this.nodeCount = buffer.getInt(16);
+    }
+
+    /**
+     * Where the tree for the dictionary lives unless told otherwise.
+     */
+    public static Path defaultLocation(Dictionary dictionary) {
+        PatternMatrix matrix = PatternMatrix.forDictionary(dictionary);
+        return PatternMatrix.DEFAULT_DIRECTORY.resolve(
+                String.format("strategy-session-%016x.bin", matrix.fingerprint()));
+    }
+
+    public static StrategyTree open(Path file, Dictionary dictionary) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new StrategyTree(PatternMatrix.forDictionary(dictionary),
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Expands every state the guesser can reach while playing the answers in the dictionary.
+     *
+     * @param guesserFactory supplies the guesser whose decisions are recorded, called once per node
+     */
+    public static StrategyTree build(Dictionary dictionary, Supplier<Guesser> guesserFactory) {
+        PatternMatrix matrix = PatternMatrix.forDictionary(dictionary);
+        List<Integer> guessOrdinals = new ArrayList<>();
+        List<long[]> edges = new ArrayList<>();
+        Deque<Expansion> queue = new ArrayDeque<>();
+        queue.add(new Expansion(new KnownState(), new ArrayList<>(dictionary.getWords()), 0));
+        guessOrdinals.add(null);
+        int expanded = 0;
+        while (!queue.isEmpty()) {
+            Expansion expansion = queue.poll();
+            int node = expanded++;
+            Guesser guesser = guesserFactory.get();
+            guesser.process(expansion.depth == 0 ? dictionary : survivors(dictionary, expansion.answers),
+                    expansion.state);
+            String guess = guesser.getBestGuess();
+            int guessOrdinal = guess == null ? -1 : matrix.ordinal(guess);
+            if (guessOrdinal < 0) {
+                throw new IllegalStateException("guess " + guess + " isn't in the dictionary at " + expansion.state);
+            }
+
+            SortedMap<Integer, List<String>> answersByPattern = new TreeMap<>();
+            for (String answer : expansion.answers) {
+                int pattern = matrix.pattern(guessOrdinal, matrix.ordinal(answer));
+                answersByPattern.computeIfAbsent(pattern, unused -> new ArrayList<>()).add(answer);
+            }
+            long[] children = new long[answersByPattern.size()];
+            int edge = 0;
+            for (Map.Entry<Integer, List<String>> entry : answersByPattern.entrySet()) {
+                if (entry.getKey() == ALL_GREEN || expansion.depth + 1 >= MAX_DEPTH) {
+                    continue;
+                }
+                KnownState childState = expansion.state.deepCopy();
+                childState.addGuess(guess, KnownState.decodePattern(entry.getKey(), guess.length()));
+                int child = guessOrdinals.size();
+                guessOrdinals.add(null);
+                queue.add(new Expansion(childState, entry.getValue(), expansion.depth + 1));
+                children[edge++] = ((long) entry.getKey() << 32) | child;
+            }
+            guessOrdinals.set(node, guessOrdinal);
+            edges.add(Arrays.copyOf(children, edge));
+            if (expanded % 1000 == 0) {
+                System.out.println("Expanded " + expanded + " states, " + queue.size() + " to go");
+            }
+        }
+
+        int totalEdges = edges.stream().mapToInt(nodeEdges -> nodeEdges.length).sum();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + guessOrdinals.size() * NODE_BYTES + totalEdges * EDGE_BYTES);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(matrix.fingerprint()).putInt(guessOrdinals.size()).putInt(totalEdges);
+        int firstEdge = 0;
+        for (int node = 0; node < guessOrdinals.size(); node++) {
+            buffer.putInt(guessOrdinals.get(node)).putInt(firstEdge).putInt(edges.get(node).length);
+            firstEdge += edges.get(node).length;
+        }
+        for (long[] nodeEdges : edges) {
+            for (long edge : nodeEdges) {
+                buffer.putInt((int) (edge >>> 32)).putInt((int) edge);
+            }
+        }
+        buffer.flip();
+        return new StrategyTree(matrix, buffer);
+    }
+
+    private static Dictionary survivors(Dictionary dictionary, List<String> answers) {
+        Set<String> remaining = new HashSet<>(answers);
+        return dictionary.filterTo(remaining::contains);
+    }
+
+    public void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "strategy", ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            ByteBuffer contents = buffer.duplicate();
+            contents.position(0);
+            while (contents.hasRemaining()) {
+                channel.write(contents);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public int root() {
+        return 0;
+    }
+
+    public int size() {
+        return nodeCount;
+    }
+
+    public String guess(int node) {
+        return matrix.word(buffer.getInt(nodeOffset(node)));
+    }
+
+    /**
+     * @return the node reached when the guess at node gets pattern, or -1 if no answer gives that pattern
+     */
+    public int child(int node, int pattern) {
+        int offset = nodeOffset(node);
+        int low = buffer.getInt(offset + 4);
+        int high = low + buffer.getInt(offset + 8) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int edgeOffset = HEADER_BYTES + nodeCount * NODE_BYTES + middle * EDGE_BYTES;
+            int edgePattern = buffer.getInt(edgeOffset);
+            if (edgePattern < pattern) {
+                low = middle + 1;
+            } else if (edgePattern > pattern) {
+                high = middle - 1;
+            } else {
+                return buffer.getInt(edgeOffset + 4);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Replays the guesses made so far from the root.
+     *
+     * @return the node for the state, or -1 if the game left the tree
+     */
+    public int find(KnownState state) {
+        int node = root();
+        List<String> guesses = state.guessHistory();
+        List<Integer> patterns = state.patternHistory();
+        for (int turn = 0; turn < guesses.size(); turn++) {
+            if (!guess(node).equals(guesses.get(turn))) {
+                return -1;
+            }
+            node = child(node, patterns.get(turn));
+            if (node < 0) {
+                return -1;
+            }
+        }
+        return node;
+    }
+
+    @Nullable
+    public String guess(KnownState state) {
+        int node = find(state);
+        return node < 0 ? null : guess(node);
+    }
+
+    private int nodeOffset(int node) {
+        if (node < 0 || node >= nodeCount) {
+            throw new IndexOutOfBoundsException("no node " + node);
+        }
+        return HEADER_BYTES + node * NODE_BYTES;
+    }
+
+    private static class Expansion {
+        private final KnownState state;
+        private final List<String> answers;
+        private final int depth;
+
+        private Expansion(KnownState state, List<String> answers, int depth) {
+            this.state = state;
+            this.answers = answers;
+            this.depth = depth;
+        }
+    }
+}
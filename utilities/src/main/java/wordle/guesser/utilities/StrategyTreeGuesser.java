@@ -0,0 +1,54 @@
+package wordle.guesser.utilities;
+
+import javax.annotation.Nullable;
+
+/**
+ * Answers from a {@link StrategyTree} while the game stays on it, and asks the fallback once it doesn't (a guess the
+ * tree wouldn't have made, or a different dictionary).
+ */
+public class StrategyTreeGuesser implements Guesser {
+
+    private final StrategyTree tree;
+    private final Guesser fallback;
+    @Nullable
+    private String treeGuess;
+
+    public StrategyTreeGuesser(StrategyTree tree, Guesser fallback) {
+        this.tree = tree;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public void determineFirstWords(Dictionary dictionary) {
+        fallback.determineFirstWords(dictionary);
+    }
+
+    @Override
+    public void process(Dictionary dictionary, KnownState state) {
+        this.treeGuess = tree.guess(state);
+        if (treeGuess == null) {
+            fallback.process(dictionary, state);
+        }
+    }
+
+    @Nullable
+    @Override
+    public String getBestGuess() {
+        return treeGuess != null ? treeGuess : fallback.getBestGuess();
+    }
+
+    @Override
+    public String printState() {
+        return treeGuess != null ? "{from strategy tree: " + treeGuess + "}" : fallback.printState();
+    }
+
+    @Override
+    public boolean isComplete() {
+        return treeGuess != null || fallback.isComplete();
+    }
+
+    @Override
+    public void cancel() {
+        fallback.cancel();
+    }
+}
@@ -0,0 +1,71 @@
+package wordle.guesser.utilities;
+
+import com.google.common.base.Joiner;
+
+import java.util.*;
+
+/**
+ * The guesses with the lowest scores seen so far, keeping every guess for each of the best guessesToKeep scores.
+ * The result doesn't depend on the order guesses are added in, so partial results can be merged freely.
+ */
+public class TopGuesses {
+
+    private final int guessesToKeep;
+    private final TreeMap<Integer, Set<String>> scoreToGuesses = new TreeMap<>();
+
+    public TopGuesses(int guessesToKeep) {
+        this.guessesToKeep = guessesToKeep;
+    }
+
+    public void add(int score, String guess) {
+        if (isFull() && score > scoreToGuesses.lastKey()) {
+            return;
+        }
+        scoreToGuesses.computeIfAbsent(score, unused -> new HashSet<>()).add(guess);
+        if (scoreToGuesses.size() > guessesToKeep) {
+            scoreToGuesses.remove(scoreToGuesses.lastKey());
+        }
+    }
+
+    public TopGuesses merge(TopGuesses other) {
+        other.scoreToGuesses.forEach((score, guesses) -> {
+            for (String guess : guesses) {
+                add(score, guess);
+            }
+        });
+        return this;
+    }
+
+    public boolean isFull() {
+        return scoreToGuesses.size() >= guessesToKeep;
+    }
+
+    public boolean isEmpty() {
+        return scoreToGuesses.isEmpty();
+    }
+
+    /**
+     * Anything scoring worse than this can't make the cut. Only meaningful once {@link #isFull()}.
+     */
+    public int worstScore() {
+        return scoreToGuesses.lastKey();
+    }
+
+    public SortedMap<Integer, Set<String>> asMap() {
+        return Collections.unmodifiableSortedMap(scoreToGuesses);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        scoreToGuesses.forEach((score, words) -> {
+            sb.append(score).append(": [");
+            if (words.size() < 50) {
+                sb.append(Joiner.on(", ").join(words)).append("], ");
+            } else {
+                sb.append(words.size()).append(" words in dict], ");
+            }
+        });
+        return sb.toString();
+    }
+}
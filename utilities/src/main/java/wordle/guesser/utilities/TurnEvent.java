@@ -0,0 +1,30 @@
+package wordle.guesser.utilities;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One {@link SolverSession#nextGuess()}, for JFR recordings. Costs nothing unless a recording has it enabled.
+ */
+@Name("wordle.guesser.Turn")
+@Label("Solver Turn")
+@Category("Wordle Guesser")
+@Description("Working out one guess")
+class TurnEvent extends Event {
+
+    @Label("Turn")
+    int turn;
+
+    @Label("Candidates")
+    int candidates;
+
+    @Label("Guess")
+    String guess;
+
+    @Label("Speculated")
+    @Description("Whether the guess had been worked out ahead of the feedback")
+    boolean speculated;
+}
@@ -7,8 +7,18 @@ public class WordleFilter implements Predicate<String> {
 
     private static final Pattern AZ_PATTERN = Pattern.compile("[a-z]*");
 
+    private final int length;
+
+    public WordleFilter() {
+        this(Words.LENGTH);
+    }
+
+    public WordleFilter(int length) {
+        this.length = length;
+    }
+
     @Override
     public boolean test(String s) {
-        return s.length() == 5 && AZ_PATTERN.matcher(s).matches();
+        return s.length() == length && AZ_PATTERN.matcher(s).matches();
     }
 }
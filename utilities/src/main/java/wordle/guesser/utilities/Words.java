@@ -0,0 +1,171 @@
+package wordle.guesser.utilities;
+
+/**
+ * Five letter A-Z words packed into an int, five bits per letter with position 0 in the lowest bits.
+ * Words of up to {@link #MAX_LENGTH} letters pack the same way into a long, for the other Wordle variants.
+ */
+public final class Words {
+
+    public static final int LENGTH = 5;
+    public static final int MAX_LENGTH = 12;
+    private static final int[] POWERS_OF_THREE = {1, 3, 9, 27, 81, 243, 729, 2187, 6561, 19683, 59049, 177147};
+
+    private Words() {}
+
+    public static int pack(String word) {
+        if (word.length() != LENGTH) {
+            throw new IllegalArgumentException("only five letter words can be packed: " + word);
+        }
+        int packed = 0;
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            packed = (packed << 5) | letter(word.charAt(i));
+        }
+        return packed;
+    }
+
+    public static String unpack(int packed) {
+        char[] chars = new char[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            chars[i] = (char) ('A' + letterAt(packed, i));
+        }
+        return new String(chars);
+    }
+
+    public static boolean isPackable(String word) {
+        if (word.length() != LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < LENGTH; i++) {
+            char c = word.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static int letterAt(int packed, int position) {
+        return (packed >>> (5 * position)) & 31;
+    }
+
+    /**
+     * Packs an A-Z word of up to {@link #MAX_LENGTH} letters. The length isn't stored, callers keep track of it.
+     */
+    public static long packLong(String word) {
+        if (word.isEmpty() || word.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("only words of 1 to " + MAX_LENGTH + " letters can be packed: " + word);
+        }
+        long packed = 0;
+        for (int i = word.length() - 1; i >= 0; i--) {
+            packed = (packed << 5) | letter(word.charAt(i));
+        }
+        return packed;
+    }
+
+    public static String unpack(long packed, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('A' + letterAt(packed, i));
+        }
+        return new String(chars);
+    }
+
+    public static boolean isPackableLong(String word) {
+        if (word.isEmpty() || word.length() > MAX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static int letterAt(long packed, int position) {
+        return (int) (packed >>> (5 * position)) & 31;
+    }
+
+    /**
+     * Number of distinct {@link KnownState#patternCode}s for words of the length, the last one being all-green.
+     */
+    public static int patternCount(int length) {
+        if (length < 1 || length > MAX_LENGTH) {
+            throw new IllegalArgumentException("no pattern codes for " + length + " letter words");
+        }
+        return POWERS_OF_THREE[length - 1] * 3;
+    }
+
+    static int letter(char c) {
+        int letter = c - 'A';
+        if (letter < 0 || letter >= 26) {
+            throw new IllegalArgumentException("only A-Z can be packed: " + c);
+        }
+        return letter;
+    }
+
+    /**
+     * The {@link KnownState#patternCode} Wordle would show for guess against answer. Greens are matched first, then
+     * each remaining guess letter is yellow only while the answer has an unmatched copy of it left, so repeated
+     * letters go grey once the answer runs out of them.
+     */
+    public static int patternCode(int packedGuess, int packedAnswer) {
+        int code = 0;
+        int greens = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            if (letterAt(packedGuess, i) == letterAt(packedAnswer, i)) {
+                greens |= 1 << i;
+                code += 2 * POWERS_OF_THREE[i];
+            }
+        }
+        if (greens == 0b11111) {
+            return code;
+        }
+        // Bit per answer position already matched to a guess letter
+        int used = greens;
+        for (int i = 0; i < LENGTH; i++) {
+            if ((greens & (1 << i)) != 0) {
+                continue;
+            }
+            int guessLetter = letterAt(packedGuess, i);
+            for (int j = 0; j < LENGTH; j++) {
+                if ((used & (1 << j)) == 0 && letterAt(packedAnswer, j) == guessLetter) {
+                    used |= 1 << j;
+                    code += POWERS_OF_THREE[i];
+                    break;
+                }
+            }
+        }
+        return code;
+    }
+
+    /**
+     * Same as {@link #patternCode(int, int)} for words of any length packed with {@link #packLong}.
+     */
+    public static int patternCode(long packedGuess, long packedAnswer, int length) {
+        int code = 0;
+        int greens = 0;
+        for (int i = 0; i < length; i++) {
+            if (letterAt(packedGuess, i) == letterAt(packedAnswer, i)) {
+                greens |= 1 << i;
+                code += 2 * POWERS_OF_THREE[i];
+            }
+        }
+        int used = greens;
+        for (int i = 0; i < length; i++) {
+            if ((greens & (1 << i)) != 0) {
+                continue;
+            }
+            int guessLetter = letterAt(packedGuess, i);
+            for (int j = 0; j < length; j++) {
+                if ((used & (1 << j)) == 0 && letterAt(packedAnswer, j) == guessLetter) {
+                    used |= 1 << j;
+                    code += POWERS_OF_THREE[i];
+                    break;
+                }
+            }
+        }
+        return code;
+    }
+}
@@ -0,0 +1,217 @@
+package wordle.guesser.test;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+import wordle.guesser.utilities.BruteGuesser;
+import wordle.guesser.utilities.Dictionary;
+import wordle.guesser.utilities.GuessPool;
+import wordle.guesser.utilities.HybridGuesser;
+import wordle.guesser.utilities.KnownState;
+import wordle.guesser.utilities.ScoringEngine;
+import wordle.guesser.utilities.ScoringObjective;
+import wordle.guesser.utilities.SolverSession;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BruteGuesserTest {
+
+    // Big enough for several waves, small enough to not be written to disk as a pattern matrix
+    private static final Dictionary DICT = randomWords(1500);
+
+    private static Dictionary randomWords(int count) {
+        Random random = new Random(7);
+        Set<String> words = new HashSet<>();
+        while (words.size() < count) {
+            char[] word = new char[5];
+            for (int i = 0; i < word.length; i++) {
+                word[i] = "AEIOULNRSTDCMPB".charAt(random.nextInt(15));
+            }
+            words.add(new String(word));
+        }
+        return Dictionary.ofWords(words);
+    }
+
+    private static KnownState afterOneGuess() {
+        String answer = DICT.getWords().iterator().next();
+        KnownState state = new KnownState();
+        state.addGuess("LARES", KnownState.getOutcomes(answer, "LARES"));
+        return state;
+    }
+
+    @Test
+    public void testUnlimitedBudgetScoresEverything() {
+        BruteGuesser guesser = new BruteGuesser(5, DICT);
+        guesser.process(DICT, afterOneGuess());
+        String exhaustive = guesser.getBestGuess();
+        assertThat(guesser.isComplete()).isTrue();
+        assertThat(guesser.guessesScored()).isEqualTo(guesser.guessesToScore());
+
+        guesser.process(DICT, afterOneGuess(), Duration.ofHours(1));
+        assertThat(guesser.isComplete()).isTrue();
+        assertThat(guesser.getBestGuess()).isEqualTo(exhaustive);
+    }
+
+    @Test
+    public void testEquivalentGuessesScoredOnce() {
+        KnownState state = afterOneGuess();
+        String answer = DICT.getWords().iterator().next();
+        state.addGuess("TONIC", KnownState.getOutcomes(answer, "TONIC"));
+        Set<String> candidates = DICT.filterToValid(state).getWords();
+        BruteGuesser guesser = new BruteGuesser(5, DICT);
+        guesser.process(DICT, state);
+        assertThat(guesser.guessesToScore()).isLessThan(DICT.size() / 2);
+
+        int best = Integer.MAX_VALUE;
+        for (String guess : DICT.getWords()) {
+            best = Math.min(best, expectedSize(guess, candidates));
+        }
+        assertThat(expectedSize(guesser.getBestGuess(), candidates)).isEqualTo(best);
+    }
+
+    @Test
+    public void testGuessesDifferingInPinnedLettersScoredOnce() {
+        // After LARES every candidate has A, T, C and H in the same places, so swapping one of those for another
+        // changes nothing
+        Dictionary dict = Dictionary.ofWords(ImmutableList.of("BATCH", "MATCH", "PATCH", "WATCH", "LARES",
+                "BMPWT", "BMPWA", "WPMBH", "WPMBC", "MBWPA", "MBWPT"));
+        KnownState state = new KnownState();
+        state.addGuess("LARES", KnownState.getOutcomes("MATCH", "LARES"));
+        Set<String> candidates = dict.filterToValid(state).getWords();
+        assertThat(candidates).containsExactlyInAnyOrder("BATCH", "MATCH", "PATCH", "WATCH");
+        BruteGuesser guesser = new BruteGuesser(5, dict);
+        guesser.process(dict, state);
+        // Each candidate on its own, LARES, then one of each pair
+        assertThat(guesser.guessesToScore()).isEqualTo(8);
+
+        int best = Integer.MAX_VALUE;
+        for (String guess : dict.getWords()) {
+            best = Math.min(best, expectedSize(guess, candidates));
+        }
+        assertThat(expectedSize(guesser.getBestGuess(), candidates)).isEqualTo(best);
+    }
+
+    private static int expectedSize(String guess, Set<String> candidates) {
+        int[] histogram = new int[KnownState.PATTERN_COUNT];
+        for (String candidate : candidates) {
+            histogram[KnownState.patternCode(KnownState.getOutcomes(candidate, guess))]++;
+        }
+        return ScoringObjective.EXPECTED_SIZE.score(histogram, candidates.size());
+    }
+
+    @Test
+    public void testNoBudgetStillGuesses() {
+        BruteGuesser guesser = new BruteGuesser(5, DICT);
+        guesser.process(DICT, afterOneGuess(), Duration.ZERO);
+        assertThat(guesser.getBestGuess()).isNotNull();
+        assertThat(guesser.guessesScored()).isEqualTo(1);
+        assertThat(guesser.isComplete()).isFalse();
+    }
+
+    @Test
+    public void testCancelFromProgressListener() {
+        BruteGuesser guesser = new BruteGuesser(5, DICT);
+        AtomicInteger calls = new AtomicInteger();
+        guesser.setProgressListener((scored, total, bestSoFar) -> {
+            assertThat(total).isLessThanOrEqualTo(DICT.size());
+            assertThat(bestSoFar).isNotNull();
+            calls.incrementAndGet();
+            guesser.cancel();
+        });
+        guesser.process(DICT, afterOneGuess());
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(guesser.guessesScored()).isLessThan(guesser.guessesToScore());
+        assertThat(guesser.isComplete()).isFalse();
+    }
+
+    @Test
+    public void testLateCancelDoesNotStopTheNextCall() {
+        BruteGuesser guesser = new BruteGuesser(5, DICT);
+        guesser.process(DICT, afterOneGuess());
+        // Arrives once the call it was meant for has returned
+        guesser.cancel();
+        guesser.process(DICT, afterOneGuess());
+        assertThat(guesser.isComplete()).isTrue();
+
+        guesser.setProgressListener((scored, total, bestSoFar) -> guesser.cancel());
+        guesser.process(DICT, afterOneGuess());
+        assertThat(guesser.isComplete()).isFalse();
+    }
+
+    @Test
+    public void testWrongLengthGuessIsNotScored() {
+        Dictionary sixLetters = Dictionary.ofWords(ImmutableList.of("BANANA", "BANDIT", "CANDLE", "HANDLE", "MANTLE"));
+        // Tried first, and abandoned for being the wrong length
+        GuessPool pool = (state, candidates) -> ImmutableList.<String>builder().add("LARES").addAll(candidates).build();
+        BruteGuesser guesser = new BruteGuesser(5, sixLetters, ScoringEngine.shared(), ScoringObjective.EXPECTED_SIZE,
+                pool);
+        KnownState state = KnownState.forDictionary(sixLetters);
+        state.addGuess("BANDIT", KnownState.getOutcomes("HANDLE", "BANDIT"));
+        guesser.process(sixLetters, state);
+        assertThat(guesser.getBestGuess()).isNotEqualTo("LARES");
+        assertThat(guesser.printState()).doesNotContain("LARES");
+    }
+
+    @Test
+    public void testHybridShortlist() {
+        HybridGuesser.Misses misses = new HybridGuesser.Misses();
+        HybridGuesser everything = new HybridGuesser(DICT.size(), DICT, misses);
+        everything.process(DICT, afterOneGuess());
+        assertThat(misses.turns()).isEqualTo(1L);
+        assertThat(misses.misses()).isEqualTo(0L);
+
+        HybridGuesser candidatesOnly = new HybridGuesser(0, DICT, misses);
+        candidatesOnly.process(DICT, afterOneGuess());
+        assertThat(DICT.filterToValid(afterOneGuess()).contains(candidatesOnly.getBestGuess())).isTrue();
+        assertThat(misses.turns()).isEqualTo(2L);
+    }
+
+    @Test
+    public void testHardModeGuessesUseEveryHint() {
+        List<String> answers = ImmutableList.copyOf(DICT.getWords()).subList(0, 40);
+        for (String answer : answers) {
+            BruteGuesser guesser = new BruteGuesser(5, DICT, ScoringEngine.shared(), ScoringObjective.EXPECTED_SIZE,
+                    GuessPool.hardMode(DICT));
+            SolverSession session = new SolverSession(DICT, guesser);
+            List<String> played = new ArrayList<>();
+            while (true) {
+                String guess = session.nextGuess();
+                for (String earlier : played) {
+                    KnownState.Outcome[] outcomes = KnownState.getOutcomes(answer, earlier);
+                    for (int i = 0; i < outcomes.length; i++) {
+                        if (outcomes[i] == KnownState.Outcome.CORRECT) {
+                            assertThat(guess.charAt(i)).isEqualTo(earlier.charAt(i));
+                        } else if (outcomes[i] == KnownState.Outcome.WRONG_SPOT) {
+                            assertThat(guess.indexOf(earlier.charAt(i))).isGreaterThanOrEqualTo(0);
+                        }
+                    }
+                }
+                if (guess.equals(answer)) {
+                    break;
+                }
+                // Only words meeting the rules were scored
+                assertThat(guesser.guessesToScore())
+                        .isLessThanOrEqualTo(DICT.filterTo(session.knownState().hardModeRules()).size());
+                played.add(guess);
+                session.apply(guess, KnownState.getOutcomes(answer, guess));
+                assertThat(played.size()).isLessThan(15);
+            }
+        }
+
+        // Grey letters may be played again, only greens and yellows bind
+        KnownState state = new KnownState();
+        state.addGuess("CRANE", KnownState.getOutcomes("SLATE", "CRANE"));
+        assertThat(state.hardModeRules().satisfies("CRATE")).isTrue();
+        assertThat(state.hardModeRules().satisfies("CRONE")).isFalse();
+        Dictionary words = Dictionary.ofWords(ImmutableList.of("SLATE", "PLATE", "CRATE", "CRONE", "TRACE"));
+        assertThat(GuessPool.hardMode(words).guesses(state, ImmutableList.of("SLATE", "PLATE")))
+                .containsExactlyInAnyOrder("SLATE", "PLATE", "CRATE", "TRACE");
+    }
+}
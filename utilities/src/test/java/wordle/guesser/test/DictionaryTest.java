@@ -2,14 +2,20 @@ package wordle.guesser.test;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import org.junit.jupiter.api.Test;
 import wordle.guesser.utilities.*;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static wordle.guesser.utilities.KnownState.Outcome.*;
 
 public class DictionaryTest {
@@ -37,6 +43,82 @@ public class DictionaryTest {
         assertThat(dictionary.prefilterWordsIgnoringWrongSpot(knownState).collect(Collectors.toSet())).isEqualTo(ImmutableSet.of());
     }
 
+    @Test
+    public void testFilterMatchesSatisfies() {
+        ImmutableSet<String> words = ImmutableSet.of("FRAME", "ARAME", "GRAME", "FROGS", "LARES", "ALOFT", "ARISE",
+                "EERIE", "SPEED", "CRUMB", "TRADE", "FAZES", "GEESE", "ABBEY", "KAYAK");
+        Dictionary dictionary = Dictionary.ofWords(words);
+        CacheStats before = Dictionary.filterCacheStats();
+        for (String first : words) {
+            for (String answer : words) {
+                KnownState state = new KnownState();
+                state.addGuess(first, KnownState.getOutcomes(answer, first));
+                Set<String> expected = words.stream().filter(state::satisfies).collect(Collectors.toSet());
+                assertThat(dictionary.filterToValid(state).getWords()).isEqualTo(expected);
+                assertThat(dictionary.sizeAfterFiltering(state)).isEqualTo(expected.size());
+                assertThat(dictionary.sizeAfterFiltering(state.toPacked(), first)).isEqualTo(expected.size());
+            }
+        }
+        // The second lookup of every state is answered from the count cache
+        CacheStats stats = Dictionary.filterCacheStats().minus(before);
+        assertThat(stats.hitCount()).isGreaterThanOrEqualTo((long) words.size() * words.size());
+        assertThat(stats.evictionCount()).isEqualTo(0L);
+    }
+
+    @Test
+    public void testCompiledDictionary() throws Exception {
+        ImmutableSet<String> words = ImmutableSet.of("FRAME", "ARAME", "GRAME", "FROGS", "LARES", "ALOFT", "ARISE",
+                "EERIE", "SPEED", "CRUMB", "TRADE", "FAZES", "GEESE", "ABBEY", "KAYAK");
+        Path file = Files.createTempDirectory("dictionary").resolve("words.dict");
+        Dictionary.ofWords(words).write(file);
+        Dictionary loaded = Dictionary.load(file);
+        assertThat(loaded.getWords()).isEqualTo(words);
+        assertThat(ImmutableList.copyOf(loaded.getWords())).isEqualTo(words.asList());
+        for (String first : words) {
+            for (String answer : words) {
+                KnownState state = new KnownState();
+                state.addGuess(first, KnownState.getOutcomes(answer, first));
+                Set<String> expected = words.stream().filter(state::satisfies).collect(Collectors.toSet());
+                assertThat(loaded.filterToValid(state).getWords()).isEqualTo(expected);
+                assertThat(loaded.sizeAfterFiltering(state)).isEqualTo(expected.size());
+            }
+        }
+    }
+
+    @Test
+    public void testPackedState() {
+        ImmutableSet<String> words = ImmutableSet.of("FRAME", "LARES", "ALOFT", "EERIE", "SPEED", "ABBEY", "KAYAK");
+        for (String first : words) {
+            for (String answer : words) {
+                KnownState state = new KnownState();
+                state.addGuess(first, KnownState.getOutcomes(answer, first));
+                for (String second : words) {
+                    KnownState.Outcome[] outcomes = KnownState.getOutcomes(answer, second);
+                    PackedState packed = state.toPacked().withGuess(second, KnownState.patternCode(outcomes));
+                    KnownState copy = state.deepCopy();
+                    copy.addGuess(second, outcomes);
+                    assertThat(packed).isEqualTo(copy.toPacked());
+                    assertThat(packed.hashCode()).isEqualTo(copy.toPacked().hashCode());
+                    for (String word : words) {
+                        assertThat(packed.satisfies(word)).isEqualTo(copy.satisfiesIgnoreGuessed(word));
+                    }
+                }
+            }
+        }
+        assertThat(new KnownState().toPacked()).isEqualTo(PackedState.EMPTY);
+        assertThat(PackedState.EMPTY.satisfies("FRAMES")).isFalse();
+        assertThat(PackedState.EMPTY.satisfies("FRAM")).isFalse();
+    }
+
+    @Test
+    public void testOnlyFiveLetterWordsCompile() throws Exception {
+        Path file = Files.createTempDirectory("dictionary").resolve("words.dict");
+        assertThatThrownBy(() -> Dictionary.ofWords(ImmutableSet.of("FRAME", "FRAMES")).write(file))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("FRAMES");
+        assertThat(Files.exists(file)).isFalse();
+    }
+
     @Test
     public void testFrames() {
         Dictionary dict = Dictionary.ofWords(ImmutableSet.of("FRAME", "ARAME", "GRAME", "FROGS"));
@@ -0,0 +1,127 @@
+package wordle.guesser.test;
+
+import org.junit.jupiter.api.Test;
+import wordle.guesser.utilities.Dictionary;
+import wordle.guesser.utilities.KnownState;
+import wordle.guesser.utilities.MultiBoardGuesser;
+import wordle.guesser.utilities.ScoringObjective;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MultiBoardGuesserTest {
+
+    private static final Dictionary DICT = randomWords(600);
+
+    private static Dictionary randomWords(int count) {
+        Random random = new Random(11);
+        Set<String> words = new HashSet<>();
+        while (words.size() < count) {
+            char[] word = new char[5];
+            for (int i = 0; i < word.length; i++) {
+                word[i] = "AEIOULNRSTDCMPB".charAt(random.nextInt(15));
+            }
+            words.add(new String(word));
+        }
+        return Dictionary.ofWords(words);
+    }
+
+    @Test
+    public void testGuessMinimizesTotalAcrossBoards() {
+        List<String> answers = new ArrayList<>(DICT.getWords()).subList(0, 4);
+        MultiBoardGuesser guesser = new MultiBoardGuesser(5, DICT, answers.size());
+        for (int turn = 0; turn < 2; turn++) {
+            // The dictionary has no LARES, so the opener is scored like any other turn
+            String guess = guesser.nextGuess();
+            int best = Integer.MAX_VALUE;
+            for (String word : DICT.getWords()) {
+                best = Math.min(best, totalExpectedSize(guesser, word));
+            }
+            assertThat(totalExpectedSize(guesser, guess)).isEqualTo(best);
+            guesser.apply(guess, feedback(answers, guess));
+        }
+    }
+
+    @Test
+    public void testUsualOpenerWhenInDictionary() {
+        Set<String> words = new HashSet<>(DICT.getWords());
+        words.add("LARES");
+        MultiBoardGuesser guesser = new MultiBoardGuesser(5, Dictionary.ofWords(words), 4);
+        assertThat(guesser.nextGuess()).isEqualTo("LARES");
+    }
+
+    @Test
+    public void testPlaysKnownAnswerFirst() {
+        Random random = new Random(7);
+        List<String> words = new ArrayList<>(DICT.getWords());
+        for (int game = 0; game < 20; game++) {
+            List<String> answers = new ArrayList<>();
+            for (int board = 0; board < 4; board++) {
+                answers.add(words.get(random.nextInt(words.size())));
+            }
+            MultiBoardGuesser guesser = new MultiBoardGuesser(5, DICT, answers.size());
+            while (!guesser.allSolved()) {
+                Set<String> known = new HashSet<>();
+                for (int board = 0; board < answers.size(); board++) {
+                    if (!guesser.solved(board) && guesser.candidates(board).size() == 1) {
+                        known.addAll(guesser.candidates(board).getWords());
+                    }
+                }
+                String guess = guesser.nextGuess();
+                if (!known.isEmpty()) {
+                    assertThat(known.contains(guess)).isTrue();
+                }
+                guesser.apply(guess, feedback(answers, guess));
+            }
+        }
+    }
+
+    @Test
+    public void testSolvesEveryBoard() {
+        Random random = new Random(3);
+        List<String> words = new ArrayList<>(DICT.getWords());
+        for (int game = 0; game < 5; game++) {
+            List<String> answers = new ArrayList<>();
+            for (int board = 0; board < 8; board++) {
+                answers.add(words.get(random.nextInt(words.size())));
+            }
+            MultiBoardGuesser guesser = new MultiBoardGuesser(5, DICT, answers.size());
+            while (!guesser.allSolved()) {
+                String guess = guesser.nextGuess();
+                guesser.apply(guess, feedback(answers, guess));
+                assertThat(guesser.turns()).isLessThan(20);
+            }
+            for (int board = 0; board < answers.size(); board++) {
+                // Solved by guessing it, the last feedback the board had still allowed it
+                assertThat(guesser.candidates(board).contains(answers.get(board))).isTrue();
+            }
+            assertThat(guesser.nextGuess()).isNull();
+        }
+    }
+
+    private static List<KnownState.Outcome[]> feedback(List<String> answers, String guess) {
+        List<KnownState.Outcome[]> outcomes = new ArrayList<>();
+        for (String answer : answers) {
+            outcomes.add(KnownState.getOutcomes(answer, guess));
+        }
+        return outcomes;
+    }
+
+    private static int totalExpectedSize(MultiBoardGuesser guesser, String guess) {
+        int total = 0;
+        for (int board = 0; board < guesser.boards(); board++) {
+            Set<String> candidates = guesser.candidates(board).getWords();
+            int[] histogram = new int[KnownState.PATTERN_COUNT];
+            for (String candidate : candidates) {
+                histogram[KnownState.patternCode(KnownState.getOutcomes(candidate, guess))]++;
+            }
+            total += ScoringObjective.EXPECTED_SIZE.score(histogram, candidates.size());
+        }
+        return total;
+    }
+}
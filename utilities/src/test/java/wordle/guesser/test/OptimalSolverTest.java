@@ -0,0 +1,156 @@
+package wordle.guesser.test;
+
+import org.junit.jupiter.api.Test;
+import wordle.guesser.utilities.Dictionary;
+import wordle.guesser.utilities.Guesser;
+import wordle.guesser.utilities.KnownState;
+import wordle.guesser.utilities.OptimalSolver;
+import wordle.guesser.utilities.PatternMatrix;
+import wordle.guesser.utilities.ScoringObjective;
+import wordle.guesser.utilities.SimpleGuesser;
+import wordle.guesser.utilities.SolverSession;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OptimalSolverTest {
+
+    private static final Dictionary DICT = randomWords(60);
+
+    private static Dictionary randomWords(int count) {
+        List<String> words = new ArrayList<>(Dictionary.wordle12k().getWords());
+        Random random = new Random(5);
+        List<String> chosen = new ArrayList<>();
+        while (chosen.size() < count) {
+            chosen.add(words.remove(random.nextInt(words.size())));
+        }
+        return Dictionary.ofWords(chosen);
+    }
+
+    @Test
+    public void testMatchesExhaustiveSearch() {
+        PatternMatrix matrix = PatternMatrix.forDictionary(DICT);
+        List<String> words = new ArrayList<>(new TreeSet<>(DICT.getWords()));
+        for (OptimalSolver.Objective objective : OptimalSolver.Objective.values()) {
+            try (OptimalSolver solver = new OptimalSolver(DICT, objective, 0, 2)) {
+                assertThat(solver.solve()).isEqualTo(exhaustive(matrix, words, objective, new HashMap<>()));
+            }
+        }
+    }
+
+    @Test
+    public void testSmallTableStillSolves() {
+        for (OptimalSolver.Objective objective : OptimalSolver.Objective.values()) {
+            try (OptimalSolver solver = new OptimalSolver(DICT, objective, 0, 2);
+                 OptimalSolver small = new OptimalSolver(DICT, objective, 0, 2, 1024)) {
+                assertThat(small.solve()).isEqualTo(solver.solve());
+                assertThat(small.tableSize()).isLessThanOrEqualTo(64);
+                assertThat(small.bestGuess(DICT.getWords())).isNotNull();
+            }
+        }
+    }
+
+    @Test
+    public void testGuesserPlaysToTheOptimalTotal() {
+        try (OptimalSolver solver = new OptimalSolver(DICT, OptimalSolver.Objective.TOTAL_GUESSES)) {
+            int optimal = solver.solve();
+            int total = 0;
+            for (String answer : DICT.getWords()) {
+                SolverSession session = new SolverSession(DICT, solver.guesser());
+                while (true) {
+                    String guess = session.nextGuess();
+                    session.apply(guess, KnownState.getOutcomes(answer, guess));
+                    if (guess.equals(answer)) {
+                        break;
+                    }
+                }
+                total += session.turns();
+            }
+            assertThat(total).isEqualTo(optimal);
+        }
+    }
+
+    @Test
+    public void testUnaffectedByOtherDictionariesFiltering() {
+        // Another game filters its own, bigger dictionary with the same empty state first
+        Dictionary other = Dictionary.wordle12k();
+        SolverSession otherSession = new SolverSession(other, new SimpleGuesser(5));
+        otherSession.nextGuess();
+        assertThat(other.filterToValid(new KnownState()).size()).isEqualTo(other.size());
+        assertThat(DICT.filterToValid(new KnownState()).size()).isEqualTo(DICT.size());
+
+        try (OptimalSolver solver = new OptimalSolver(DICT, OptimalSolver.Objective.TOTAL_GUESSES)) {
+            Guesser guesser = solver.guesser();
+            guesser.process(DICT, new KnownState());
+            assertThat(DICT.contains(guesser.getBestGuess())).isTrue();
+            // Handed the whole dictionary after a guess, rather than a session's survivors
+            String answer = DICT.getWords().iterator().next();
+            KnownState state = new KnownState();
+            state.addGuess(guesser.getBestGuess(), KnownState.getOutcomes(answer, guesser.getBestGuess()));
+            guesser.process(DICT, state);
+            SolverSession session = new SolverSession(DICT, solver.guesser());
+            session.nextGuess();
+            session.apply(state.guessHistory().get(0), KnownState.getOutcomes(answer, state.guessHistory().get(0)));
+            assertThat(guesser.getBestGuess()).isEqualTo(session.nextGuess());
+        }
+    }
+
+    @Test
+    public void testResumesFromCheckpoint() throws Exception {
+        Path file = Files.createTempDirectory("optimal").resolve("checkpoint.bin");
+        int optimal;
+        try (OptimalSolver solver = new OptimalSolver(DICT, OptimalSolver.Objective.WORST_CASE)) {
+            optimal = solver.solve();
+            solver.checkpoint(file);
+        }
+        try (OptimalSolver solver = new OptimalSolver(DICT, OptimalSolver.Objective.WORST_CASE)) {
+            solver.load(file);
+            assertThat(solver.solve()).isEqualTo(optimal);
+            assertThat(solver.statesSearched()).isEqualTo(0L);
+        }
+    }
+
+    /**
+     * Tries every guess at every state, no pruning.
+     */
+    private static int exhaustive(PatternMatrix matrix, List<String> candidates, OptimalSolver.Objective objective,
+                                  Map<List<String>, Integer> memo) {
+        if (candidates.size() == 1) {
+            return 1;
+        }
+        Integer known = memo.get(candidates);
+        if (known != null) {
+            return known;
+        }
+        int best = Integer.MAX_VALUE;
+        for (String guess : DICT.getWords()) {
+            Map<Integer, List<String>> split = new TreeMap<>();
+            for (String answer : candidates) {
+                split.computeIfAbsent(matrix.pattern(guess, answer), unused -> new ArrayList<>()).add(answer);
+            }
+            if (split.size() == 1 && !split.containsKey(ScoringObjective.ALL_GREEN)) {
+                continue;
+            }
+            int value = objective == OptimalSolver.Objective.TOTAL_GUESSES ? candidates.size() : 1;
+            for (Map.Entry<Integer, List<String>> entry : split.entrySet()) {
+                if (entry.getKey() == ScoringObjective.ALL_GREEN) {
+                    continue;
+                }
+                int child = exhaustive(matrix, entry.getValue(), objective, memo);
+                value = objective == OptimalSolver.Objective.TOTAL_GUESSES ? value + child : Math.max(value, 1 + child);
+            }
+            best = Math.min(best, value);
+        }
+        memo.put(candidates, best);
+        return best;
+    }
+}
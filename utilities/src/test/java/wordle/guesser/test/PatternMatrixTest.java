@@ -0,0 +1,57 @@
+package wordle.guesser.test;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+import wordle.guesser.utilities.Dictionary;
+import wordle.guesser.utilities.KnownState;
+import wordle.guesser.utilities.PatternMatrix;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static wordle.guesser.utilities.KnownState.Outcome.*;
+
+public class PatternMatrixTest {
+
+    private static final Dictionary DICT = Dictionary.ofWords(ImmutableSet.of("FRAME", "ARAME", "GRAME", "FROGS", "LARES"));
+
+    @Test
+    public void testPatternCodes() {
+        assertThat(KnownState.patternCode(NOT_IN_WORD, NOT_IN_WORD, NOT_IN_WORD, NOT_IN_WORD, NOT_IN_WORD)).isEqualTo(0);
+        assertThat(KnownState.patternCode(CORRECT, CORRECT, CORRECT, CORRECT, CORRECT)).isEqualTo(242);
+        assertThat(KnownState.patternCode(WRONG_SPOT, NOT_IN_WORD, CORRECT)).isEqualTo(1 + 2 * 9);
+        for (int code = 0; code < KnownState.PATTERN_COUNT; code++) {
+            assertThat(KnownState.patternCode(KnownState.decodePattern(code, 5))).isEqualTo(code);
+        }
+    }
+
+    @Test
+    public void testMatchesOutcomes() {
+        PatternMatrix matrix = PatternMatrix.build(DICT);
+        assertThat(matrix.size()).isEqualTo(5);
+        for (String guess : DICT.getWords()) {
+            for (String answer : DICT.getWords()) {
+                KnownState.Outcome[] outcomes = KnownState.decodePattern(matrix.pattern(guess, answer), 5);
+                assertThat(Arrays.equals(outcomes, KnownState.getOutcomes(answer, guess))).isTrue();
+            }
+        }
+        assertThat(matrix.ordinal("ZZZZZ")).isEqualTo(-1);
+        assertThat(matrix.pattern("ZZZZZ", "FRAME")).isEqualTo(0);
+    }
+
+    @Test
+    public void testPersistedMatrixIsReused() throws Exception {
+        Path directory = Files.createTempDirectory("patterns");
+        PatternMatrix built = PatternMatrix.loadOrBuild(DICT, directory);
+        assertThat(Files.list(directory).count()).isEqualTo(1L);
+        PatternMatrix loaded = PatternMatrix.loadOrBuild(DICT, directory);
+        assertThat(loaded.fingerprint()).isEqualTo(built.fingerprint());
+        for (int guess = 0; guess < built.size(); guess++) {
+            for (int answer = 0; answer < built.size(); answer++) {
+                assertThat(loaded.pattern(guess, answer)).isEqualTo(built.pattern(guess, answer));
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package wordle.guesser.test;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+import wordle.guesser.utilities.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ResultStoreTest {
+
+    private static final Dictionary DICT = Dictionary.ofWords(ImmutableSet.of("FRAME", "ARAME", "GRAME", "FROGS", "LARES"));
+    private static final long CANDIDATES = ResultStore.fingerprint(DICT);
+
+    @Test
+    public void testResultsSurviveReopening() throws Exception {
+        Path file = Files.createTempDirectory("results").resolve("store.bin");
+        PackedState first = PackedState.EMPTY.withGuess("LARES", KnownState.patternCode(KnownState.getOutcomes("FRAME", "LARES")));
+        PackedState second = first.withGuess("ARAME", KnownState.patternCode(KnownState.getOutcomes("FRAME", "ARAME")));
+        try (ResultStore store = ResultStore.open(file, DICT)) {
+            store.put(first, CANDIDATES, "ARAME");
+            store.put(second, CANDIDATES, "FRAME");
+        }
+        // A partial record from a run that died mid-write
+        Files.write(file, new byte[] {1, 2, 3}, StandardOpenOption.APPEND);
+        long size = Files.size(file);
+        try (ResultStore store = ResultStore.open(file, DICT)) {
+            assertThat(store.size()).isEqualTo(2);
+            assertThat(store.get(first, CANDIDATES)).isEqualTo("ARAME");
+            assertThat(store.get(second, CANDIDATES)).isEqualTo("FRAME");
+            assertThat(store.get(PackedState.EMPTY, CANDIDATES)).isNull();
+        }
+        assertThat(Files.size(file)).isEqualTo(size - 3);
+    }
+
+    @Test
+    public void testCompactDropsDuplicates() throws Exception {
+        Path file = Files.createTempDirectory("results").resolve("store.bin");
+        PackedState state = PackedState.EMPTY.withGuess("FROGS", 0);
+        // Two runs that both worked out the same state
+        try (ResultStore one = ResultStore.open(file, DICT); ResultStore two = ResultStore.open(file, DICT)) {
+            one.put(state, CANDIDATES, "LARES");
+            two.put(state, CANDIDATES, "LARES");
+        }
+        long duplicated = Files.size(file);
+        try (ResultStore store = ResultStore.open(file, DICT)) {
+            assertThat(store.size()).isEqualTo(1);
+            store.compact();
+        }
+        assertThat(Files.size(file)).isLessThan(duplicated);
+        try (ResultStore store = ResultStore.open(file, DICT)) {
+            assertThat(store.get(state, CANDIDATES)).isEqualTo("LARES");
+        }
+    }
+
+    @Test
+    public void testCompactKeepsOtherRunsRecords() throws Exception {
+        Path file = Files.createTempDirectory("results").resolve("store.bin");
+        PackedState state = PackedState.EMPTY.withGuess("FROGS", 0);
+        PackedState other = PackedState.EMPTY.withGuess("LARES", 0);
+        PackedState later = PackedState.EMPTY.withGuess("ARAME", 0);
+        try (ResultStore one = ResultStore.open(file, DICT); ResultStore two = ResultStore.open(file, DICT)) {
+            one.put(state, CANDIDATES, "LARES");
+            two.put(state, CANDIDATES, "LARES");
+        }
+        try (ResultStore compacting = ResultStore.open(file, DICT); ResultStore appending = ResultStore.open(file, DICT)) {
+            appending.put(other, CANDIDATES, "FRAME");
+            compacting.compact();
+            appending.put(later, CANDIDATES, "GRAME");
+        }
+        try (ResultStore store = ResultStore.open(file, DICT)) {
+            assertThat(store.size()).isEqualTo(3);
+            assertThat(store.get(other, CANDIDATES)).isEqualTo("FRAME");
+            assertThat(store.get(later, CANDIDATES)).isEqualTo("GRAME");
+        }
+    }
+
+    @Test
+    public void testRacingAppendsKeepEveryRecord() throws Exception {
+        Path file = Files.createTempDirectory("results").resolve("store.bin");
+        try (ResultStore one = ResultStore.open(file, DICT); ResultStore two = ResultStore.open(file, DICT)) {
+            Thread other = new Thread(() -> {
+                for (int pattern = 0; pattern < 200; pattern++) {
+                    two.put(PackedState.EMPTY.withGuess("LARES", pattern), CANDIDATES, "FRAME");
+                }
+            });
+            other.start();
+            for (int pattern = 0; pattern < 200; pattern++) {
+                one.put(PackedState.EMPTY.withGuess("FROGS", pattern), CANDIDATES, "LARES");
+            }
+            other.join();
+        }
+        try (ResultStore store = ResultStore.open(file, DICT)) {
+            for (int pattern = 0; pattern < 200; pattern++) {
+                assertThat(store.get(PackedState.EMPTY.withGuess("FROGS", pattern), CANDIDATES)).isEqualTo("LARES");
+                assertThat(store.get(PackedState.EMPTY.withGuess("LARES", pattern), CANDIDATES)).isEqualTo("FRAME");
+            }
+        }
+    }
+
+    @Test
+    public void testCachingGuesserStoresDecisions() throws Exception {
+        Path file = Files.createTempDirectory("results").resolve("store.bin");
+        KnownState state = new KnownState();
+        state.addGuess("LARES", KnownState.getOutcomes("FRAME", "LARES"));
+        String live;
+        try (ResultStore store = ResultStore.open(file, DICT)) {
+            Guesser guesser = new CachingGuesser(new BruteGuesser(5, DICT), store);
+            guesser.process(DICT, state);
+            live = guesser.getBestGuess();
+        }
+        try (ResultStore store = ResultStore.open(file, DICT)) {
+            assertThat(store.get(state.toPacked(), CANDIDATES)).isEqualTo(live);
+            Guesser guesser = new CachingGuesser(new SimpleGuesser(5), store);
+            guesser.process(DICT, state);
+            assertThat(guesser.getBestGuess()).isEqualTo(live);
+        }
+    }
+
+    @Test
+    public void testSameStateWithOtherCandidatesIsStoredApart() throws Exception {
+        Path file = Files.createTempDirectory("results").resolve("store.bin");
+        KnownState state = new KnownState();
+        state.addGuess("LARES", KnownState.getOutcomes("FRAME", "LARES"));
+        // Fewer candidates for the same state, as a session's exact survivors can be
+        Dictionary survivors = Dictionary.ofWords(ImmutableSet.of("FRAME", "GRAME"));
+        assertThat(ResultStore.fingerprint(survivors)).isNotEqualTo(CANDIDATES);
+        assertThat(ResultStore.fingerprint(Dictionary.ofWords(ImmutableSet.of("GRAME", "FRAME"))))
+                .isEqualTo(ResultStore.fingerprint(survivors));
+        try (ResultStore store = ResultStore.open(file, DICT)) {
+            store.put(state.toPacked(), CANDIDATES, "ARAME");
+            Guesser guesser = new CachingGuesser(new BruteGuesser(5, DICT), store);
+            guesser.process(survivors, state);
+            assertThat(guesser.printState()).doesNotContain("result store");
+            assertThat(store.get(state.toPacked(), ResultStore.fingerprint(survivors))).isEqualTo(guesser.getBestGuess());
+            assertThat(store.get(state.toPacked(), CANDIDATES)).isEqualTo("ARAME");
+        }
+    }
+
+    @Test
+    public void testOtherLengthsAreRejected() throws Exception {
+        Path file = Files.createTempDirectory("results").resolve("store.bin");
+        assertThatThrownBy(() -> ResultStore.open(file, Dictionary.ofWords(ImmutableSet.of("FRAMES", "GRAMES"))))
+                .isInstanceOf(IllegalArgumentException.class);
+        try (ResultStore store = ResultStore.open(file, DICT)) {
+            assertThatThrownBy(() -> store.put(PackedState.empty(6), CANDIDATES, "FRAMES"))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package wordle.guesser.test;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+import wordle.guesser.utilities.ScoringEngine;
+import wordle.guesser.utilities.TopGuesses;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ScoringEngineTest {
+
+    private static final ImmutableList<String> GUESSES = IntStream.range(0, 1000)
+            .mapToObj(i -> "G" + i)
+            .collect(ImmutableList.toImmutableList());
+    // Lots of ties, so the kept sets have more than one guess
+    private static final ToIntFunction<String> SCORER = guess -> Math.abs(guess.hashCode() % 97);
+
+    @Test
+    public void testMatchesSequentialTopGuesses() {
+        TopGuesses expected = new TopGuesses(5);
+        for (String guess : GUESSES) {
+            expected.add(SCORER.applyAsInt(guess), guess);
+        }
+        try (ScoringEngine engine = new ScoringEngine(4, 7)) {
+            TopGuesses actual = engine.score(GUESSES, SCORER, 5);
+            assertThat(actual.asMap()).isEqualTo(expected.asMap());
+        }
+        assertThat(expected.asMap().keySet()).containsExactly(0, 1, 2, 3, 4);
+        assertThat(expected.asMap().get(0)).isEqualTo(GUESSES.stream()
+                .filter(guess -> SCORER.applyAsInt(guess) == 0)
+                .collect(Collectors.toSet()));
+    }
+
+    @Test
+    public void testAbandonedGuessesDontChangeTheResult() {
+        TopGuesses expected = new TopGuesses(3);
+        for (String guess : GUESSES) {
+            expected.add(SCORER.applyAsInt(guess), guess);
+        }
+        AtomicInteger abandoned = new AtomicInteger();
+        try (ScoringEngine engine = new ScoringEngine(4, 16)) {
+            TopGuesses actual = engine.score(GUESSES, (guess, cutoff) -> {
+                int score = SCORER.applyAsInt(guess);
+                if (score > cutoff) {
+                    abandoned.incrementAndGet();
+                    return ScoringEngine.ABANDONED;
+                }
+                return score;
+            }, 3);
+            assertThat(actual.asMap()).isEqualTo(expected.asMap());
+        }
+        assertThat(abandoned.get()).isGreaterThan(0);
+    }
+
+    @Test
+    public void testStopLeavesTheRestUnscored() {
+        AtomicInteger scored = new AtomicInteger();
+        try (ScoringEngine engine = new ScoringEngine(1, 16)) {
+            TopGuesses partial = engine.score(GUESSES, (guess, cutoff) -> {
+                scored.incrementAndGet();
+                return SCORER.applyAsInt(guess);
+            }, 5, ScoringEngine.ABANDONED - 1, () -> scored.get() >= 100);
+            assertThat(scored.get()).isEqualTo(100);
+            // One thread goes through the list in order
+            TopGuesses expected = new TopGuesses(5);
+            for (String guess : GUESSES.subList(0, 100)) {
+                expected.add(SCORER.applyAsInt(guess), guess);
+            }
+            assertThat(partial.asMap()).isEqualTo(expected.asMap());
+        }
+    }
+
+    @Test
+    public void testEmptyGuesses() {
+        try (ScoringEngine engine = new ScoringEngine(2)) {
+            assertThat(engine.score(ImmutableList.of(), SCORER, 5).isEmpty()).isTrue();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package wordle.guesser.test;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+import wordle.guesser.utilities.*;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ScoringObjectiveTest {
+
+    private static final ScoringObjective[] OBJECTIVES = {ScoringObjective.EXPECTED_SIZE, ScoringObjective.ENTROPY,
+            ScoringObjective.MINIMAX, ScoringObjective.EXPECTED_GUESSES};
+
+    @Test
+    public void testScores() {
+        int[] histogram = new int[KnownState.PATTERN_COUNT];
+        histogram[0] = 3;
+        histogram[7] = 1;
+        histogram[ScoringObjective.ALL_GREEN] = 1;
+        assertThat(ScoringObjective.EXPECTED_SIZE.score(histogram, 5)).isEqualTo(10);
+        assertThat(ScoringObjective.MINIMAX.score(histogram, 5)).isEqualTo(3);
+        // 3 * (2 - 1/3) + 1 * 1
+        assertThat(ScoringObjective.EXPECTED_GUESSES.score(histogram, 5)).isEqualTo(6000);
+        int[] even = new int[KnownState.PATTERN_COUNT];
+        even[1] = 1;
+        even[2] = 1;
+        assertThat(ScoringObjective.ENTROPY.score(even, 2)).isEqualTo(-1_000_000);
+        even[ScoringObjective.ALL_GREEN] = 2;
+        assertThat(ScoringObjective.ENTROPY.score(even, 4)).isEqualTo(-1_500_001);
+        for (ScoringObjective objective : OBJECTIVES) {
+            assertThat(ScoringObjective.named(objective.name())).isEqualTo(objective);
+        }
+    }
+
+    @Test
+    public void testBoundableObjectivesNeverDecrease() {
+        Random random = new Random(42);
+        for (ScoringObjective objective : OBJECTIVES) {
+            if (!objective.boundable()) {
+                continue;
+            }
+            int[] histogram = new int[KnownState.PATTERN_COUNT];
+            int previous = objective.score(histogram, 0);
+            int partial = 0;
+            for (int candidates = 1; candidates < 2000; candidates++) {
+                int pattern = candidates % 100 == 0 ? ScoringObjective.ALL_GREEN : random.nextInt(8) * random.nextInt(31);
+                int count = ++histogram[pattern];
+                if (pattern != ScoringObjective.ALL_GREEN) {
+                    partial = objective.grow(partial, count);
+                }
+                int score = objective.score(histogram, candidates);
+                assertThat(score).isGreaterThanOrEqualTo(previous);
+                assertThat(partial).isBetween(score - candidates, score);
+                previous = score;
+            }
+        }
+    }
+
+    @Test
+    public void testEveryObjectiveSolves() {
+        ImmutableSet<String> words = ImmutableSet.of("FRAME", "ARAME", "GRAME", "FROGS", "LARES", "ALOFT", "ARISE",
+                "EERIE", "SPEED", "CRUMB", "TRADE", "FAZES", "GEESE", "ABBEY", "KAYAK");
+        Dictionary dict = Dictionary.ofWords(words);
+        for (ScoringObjective objective : OBJECTIVES) {
+            Simulation simulation = new Simulation(dict, () -> new BruteGuesser(5, dict, objective), 2);
+            Simulation.Result result = simulation.run(words);
+            assertThat(result.games()).isEqualTo(words.size());
+            assertThat(result.averageGuesses()).isLessThan(4.0);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package wordle.guesser.test;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+import wordle.guesser.utilities.BruteGuesser;
+import wordle.guesser.utilities.Dictionary;
+import wordle.guesser.utilities.Simulation;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SimulationTest {
+
+    private static final ImmutableSet<String> WORDS = ImmutableSet.of("FRAME", "ARAME", "GRAME", "FROGS", "LARES",
+            "ALOFT", "ARISE", "EERIE", "SPEED", "CRUMB", "TRADE", "FAZES", "GEESE", "ABBEY", "KAYAK");
+
+    @Test
+    public void testPlaysEveryAnswer() {
+        Dictionary dict = Dictionary.ofWords(WORDS);
+        Simulation simulation = new Simulation(dict, () -> new BruteGuesser(5, dict), 4);
+        Simulation.Result result = simulation.run(WORDS);
+        assertThat(result.games()).isEqualTo(WORDS.size());
+        // Everything starts with the hardcoded opener, which is in this dictionary
+        assertThat(result.answersByGuesses().get(1)).isEqualTo(ImmutableSet.of("LARES"));
+        assertThat(result.averageGuesses()).isGreaterThan(1.0);
+        // Far fewer distinct states than turns played
+        assertThat(simulation.memoSize()).isLessThan(WORDS.size() * 2);
+        for (Set<String> answers : result.answersByGuesses().values()) {
+            for (String answer : answers) {
+                assertThat(result.answersByGuesses().get(simulation.play(answer)).contains(answer)).isTrue();
+            }
+        }
+    }
+}
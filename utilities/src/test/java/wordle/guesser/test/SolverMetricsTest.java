@@ -0,0 +1,47 @@
+package wordle.guesser.test;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+import wordle.guesser.utilities.*;
+
+import javax.management.Attribute;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SolverMetricsTest {
+
+    @Test
+    public void testTurnsAreCountedAndPublished() throws Exception {
+        Dictionary dict = Dictionary.ofWords(ImmutableSet.of("FRAME", "ARAME", "GRAME", "FROGS", "LARES", "ALOFT",
+                "ARISE", "EERIE", "SPEED", "CRUMB", "TRADE", "FAZES"));
+        SolverMetrics.setEnabled(true);
+        long processed = SolverMetrics.PROCESS.count();
+        long outcomes = SolverMetrics.GET_OUTCOMES.count();
+        BruteGuesser guesser = new BruteGuesser(5, dict);
+        KnownState state = new KnownState();
+        state.addGuess("LARES", KnownState.getOutcomes("TRADE", "LARES"));
+        guesser.process(dict, state);
+
+        assertThat(SolverMetrics.PROCESS.count()).isEqualTo(processed + 1);
+        assertThat(SolverMetrics.GET_OUTCOMES.count()).isEqualTo(outcomes + 1);
+        assertThat(SolverMetrics.PROCESS.maxNanos()).isGreaterThan(0L);
+        assertThat(SolverMetrics.PROCESS.percentileNanos(0.99)).isLessThanOrEqualTo(SolverMetrics.PROCESS.maxNanos());
+        assertThat(SolverMetrics.dump()).contains("process.score");
+
+        SolverMetrics.registerMBean();
+        SolverMetrics.registerMBean();
+        Object calls = ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(new ObjectName(SolverMetrics.OBJECT_NAME), "GuessesScored");
+        assertThat((Long) calls).isGreaterThan(0L);
+
+        // Off again over JMX, the way it's turned on for a running server
+        ManagementFactory.getPlatformMBeanServer()
+                .setAttribute(new ObjectName(SolverMetrics.OBJECT_NAME), new Attribute("Enabled", false));
+        assertThat(SolverMetrics.isEnabled()).isFalse();
+        guesser.process(dict, state);
+        assertThat(SolverMetrics.PROCESS.count()).isEqualTo(processed + 1);
+    }
+}
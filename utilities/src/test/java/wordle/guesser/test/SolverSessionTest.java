@@ -0,0 +1,113 @@
+package wordle.guesser.test;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+import wordle.guesser.utilities.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SolverSessionTest {
+
+    private static final ImmutableSet<String> WORDS = ImmutableSet.of("FRAME", "ARAME", "GRAME", "FROGS", "LARES",
+            "ALOFT", "ARISE", "EERIE", "SPEED", "CRUMB", "TRADE", "FAZES", "GEESE", "ABBEY", "KAYAK");
+
+    @Test
+    public void testCandidatesNarrowToTheAnswer() {
+        Dictionary dict = Dictionary.ofWords(WORDS);
+        for (String answer : WORDS) {
+            SolverSession session = new SolverSession(dict, new BruteGuesser(5, dict));
+            Set<String> expected = WORDS;
+            while (true) {
+                String guess = session.nextGuess();
+                KnownState.Outcome[] outcomes = KnownState.getOutcomes(answer, guess);
+                session.apply(guess, outcomes);
+                // Exactly the words that would have shown the same feedback so far
+                expected = expected.stream()
+                        .filter(word -> Arrays.equals(KnownState.getOutcomes(word, guess), outcomes))
+                        .collect(Collectors.toSet());
+                assertThat(session.candidates().getWords()).isEqualTo(expected);
+                if (guess.equals(answer)) {
+                    break;
+                }
+                assertThat(session.turns()).isLessThan(10);
+            }
+            assertThat(session.candidates().getWords()).isEqualTo(ImmutableSet.of(answer));
+        }
+    }
+
+    @Test
+    public void testGuessOutsideDictionary() {
+        Dictionary dict = Dictionary.ofWords(ImmutableSet.of("ALOFT", "ARISE", "FATLI", "AROSE"));
+        SolverSession session = new SolverSession(dict, new SimpleGuesser(5));
+        session.apply("ART", KnownState.Outcome.CORRECT, KnownState.Outcome.NOT_IN_WORD, KnownState.Outcome.WRONG_SPOT);
+        assertThat(session.candidates().getWords()).isEqualTo(ImmutableSet.of("ALOFT"));
+        assertThat(session.nextGuess()).isEqualTo("ALOFT");
+    }
+
+    @Test
+    public void testSpeculatedGuessesMatch() {
+        Dictionary dict = Dictionary.ofWords(WORDS);
+        for (String answer : WORDS) {
+            List<String> expected = play(new SolverSession(dict, new BruteGuesser(5, dict)), answer);
+
+            AtomicInteger processed = new AtomicInteger();
+            Guesser counting = new BruteGuesser(5, dict) {
+                @Override
+                public void process(Dictionary dictionary, KnownState state) {
+                    processed.incrementAndGet();
+                    super.process(dictionary, state);
+                }
+            };
+            SolverSession session = new SolverSession(dict, counting);
+            session.speculate(() -> new BruteGuesser(5, dict), KnownState.PATTERN_COUNT);
+            assertThat(play(session, answer)).isEqualTo(expected);
+            // Every bucket was worked out ahead, so only the first guess came from the session's own guesser
+            assertThat(processed.get()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void testOtherWordLengths() {
+        for (int length : new int[] {4, 6, 12}) {
+            Random random = new Random(length);
+            Set<String> words = new HashSet<>();
+            while (words.size() < 300) {
+                char[] word = new char[length];
+                for (int i = 0; i < length; i++) {
+                    word[i] = "AEIOULNRSTDCMPB".charAt(random.nextInt(15));
+                }
+                words.add(new String(word));
+            }
+            Dictionary dict = Dictionary.ofWords(words);
+            assertThat(dict.wordLength()).isEqualTo(length);
+            for (String answer : new ArrayList<>(words).subList(0, 20)) {
+                SolverSession session = new SolverSession(dict, new BruteGuesser(5, dict));
+                assertThat(session.knownState().length()).isEqualTo(length);
+                play(session, answer);
+                assertThat(session.candidates().contains(answer)).isTrue();
+            }
+        }
+    }
+
+    private static List<String> play(SolverSession session, String answer) {
+        List<String> guesses = new ArrayList<>();
+        while (true) {
+            String guess = session.nextGuess();
+            guesses.add(guess);
+            if (guess.equals(answer)) {
+                return guesses;
+            }
+            session.apply(guess, KnownState.getOutcomes(answer, guess));
+            assertThat(guesses.size()).isLessThan(10);
+        }
+    }
+}
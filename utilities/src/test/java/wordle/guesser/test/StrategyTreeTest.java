@@ -0,0 +1,57 @@
+package wordle.guesser.test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+import wordle.guesser.utilities.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StrategyTreeTest {
+
+    private static final ImmutableSet<String> WORDS = ImmutableSet.of("FRAME", "ARAME", "GRAME", "FROGS", "LARES",
+            "ALOFT", "ARISE", "EERIE", "SPEED", "CRUMB", "TRADE", "FAZES", "GEESE", "ABBEY", "KAYAK");
+
+    @Test
+    public void testHistoryIsRecorded() {
+        KnownState state = new KnownState();
+        state.addGuess("LARES", KnownState.getOutcomes("FAZES", "LARES"));
+        state.addGuess("FAZES", KnownState.getOutcomes("FAZES", "FAZES"));
+        assertThat(state.guessHistory()).isEqualTo(ImmutableList.of("LARES", "FAZES"));
+        assertThat(state.patternHistory().get(1)).isEqualTo(KnownState.PATTERN_COUNT - 1);
+        assertThat(state.deepCopy().patternHistory()).isEqualTo(state.patternHistory());
+    }
+
+    @Test
+    public void testTreeMatchesLiveGuesser() throws Exception {
+        Dictionary dict = Dictionary.ofWords(WORDS);
+        StrategyTree built = StrategyTree.build(dict, () -> new BruteGuesser(5, dict));
+        Path file = Files.createTempDirectory("strategy").resolve("tree.bin");
+        built.write(file);
+        StrategyTree tree = StrategyTree.open(file, dict);
+        assertThat(tree.size()).isEqualTo(built.size());
+
+        for (String answer : WORDS) {
+            SolverSession session = new SolverSession(dict, new BruteGuesser(5, dict));
+            for (int turn = 0; turn < 10; turn++) {
+                String expected = tree.guess(session.knownState());
+                String guess = session.nextGuess();
+                assertThat(expected).isEqualTo(guess);
+                if (guess.equals(answer)) {
+                    break;
+                }
+                session.apply(guess, KnownState.getOutcomes(answer, guess));
+            }
+        }
+
+        KnownState offTree = new KnownState();
+        offTree.addGuess("KAYAK", KnownState.getOutcomes("FRAME", "KAYAK"));
+        assertThat(tree.find(offTree)).isEqualTo(-1);
+        StrategyTreeGuesser guesser = new StrategyTreeGuesser(tree, new SimpleGuesser(5));
+        guesser.process(dict, offTree);
+        assertThat(guesser.getBestGuess()).isNotNull();
+    }
+}
@@ -0,0 +1,79 @@
+package wordle.guesser.test;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+import wordle.guesser.utilities.KnownState;
+import wordle.guesser.utilities.Words;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static wordle.guesser.utilities.KnownState.Outcome.*;
+
+public class WordsTest {
+
+    private static final ImmutableList<String> WORDS = ImmutableList.of("SPEED", "ABIDE", "EERIE", "THERE", "LARES",
+            "FAZES", "GEESE", "ABBEY", "KAYAK", "ALOFT", "LLAMA", "MAMMA");
+
+    @Test
+    public void testPacking() {
+        for (String word : WORDS) {
+            assertThat(Words.unpack(Words.pack(word))).isEqualTo(word);
+        }
+        assertThat(Words.letterAt(Words.pack("ABIDE"), 2)).isEqualTo('I' - 'A');
+        assertThat(Words.isPackable("abide")).isFalse();
+        assertThat(Words.isPackable("ART")).isFalse();
+    }
+
+    @Test
+    public void testRepeatedLetters() {
+        assertThat(outcomes("ABIDE", "SPEED")).containsExactly(NOT_IN_WORD, NOT_IN_WORD, WRONG_SPOT, NOT_IN_WORD, WRONG_SPOT);
+        assertThat(outcomes("THERE", "EERIE")).containsExactly(WRONG_SPOT, NOT_IN_WORD, WRONG_SPOT, NOT_IN_WORD, CORRECT);
+        assertThat(outcomes("LARES", "LLAMA")).containsExactly(CORRECT, NOT_IN_WORD, WRONG_SPOT, NOT_IN_WORD, NOT_IN_WORD);
+        assertThat(outcomes("LLAMA", "LARES")).containsExactly(CORRECT, WRONG_SPOT, NOT_IN_WORD, NOT_IN_WORD, NOT_IN_WORD);
+    }
+
+    @Test
+    public void testMatchesUnpackedOutcomes() {
+        for (String guess : WORDS) {
+            for (String answer : WORDS) {
+                // Lowercase words can't be packed, so getOutcomes takes the character by character path
+                KnownState.Outcome[] unpacked = KnownState.getOutcomes(answer.toLowerCase(), guess.toLowerCase());
+                assertThat(Arrays.asList(outcomes(answer, guess))).isEqualTo(Arrays.asList(unpacked));
+            }
+        }
+    }
+
+    @Test
+    public void testOtherLengths() {
+        Random random = new Random(5);
+        for (int length = 1; length <= Words.MAX_LENGTH; length++) {
+            for (int i = 0; i < 200; i++) {
+                String guess = randomWord(random, length);
+                String answer = randomWord(random, length);
+                assertThat(Words.unpack(Words.packLong(guess), length)).isEqualTo(guess);
+                KnownState.Outcome[] packed = KnownState.decodePattern(
+                        Words.patternCode(Words.packLong(guess), Words.packLong(answer), length), length);
+                KnownState.Outcome[] unpacked = KnownState.getOutcomes(answer.toLowerCase(), guess.toLowerCase());
+                assertThat(Arrays.asList(packed)).isEqualTo(Arrays.asList(unpacked));
+                assertThat(KnownState.patternCode(KnownState.getOutcomes(answer, answer)))
+                        .isEqualTo(Words.patternCount(length) - 1);
+            }
+        }
+        assertThat(Words.isPackableLong("ABCDEFGHIJKLM")).isFalse();
+    }
+
+    private static String randomWord(Random random, int length) {
+        char[] word = new char[length];
+        for (int i = 0; i < length; i++) {
+            // Few letters, so that there are plenty of repeats
+            word[i] = "ABCDE".charAt(random.nextInt(5));
+        }
+        return new String(word);
+    }
+
+    private static KnownState.Outcome[] outcomes(String answer, String guess) {
+        return KnownState.decodePattern(Words.patternCode(Words.pack(guess), Words.pack(answer)), 5);
+    }
+}